@@ -0,0 +1,362 @@
+package benchmark;
+
+import data_structure.metrics.MetricsRegistry;
+import data_structure.tree.ArrayBSTree;
+import data_structure.tree.BPlusTree;
+import data_structure.tree.BSTMap;
+import data_structure.tree.BSTree;
+import data_structure.tree.FrozenBSTree;
+import data_structure.tree.FrozenIntBSTree;
+import data_structure.tree.FrozenLongBSTree;
+import data_structure.tree.IntBSTree;
+import data_structure.tree.LongBSTree;
+import data_structure.tree.PersistentBSTree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * BSTree 的 insert/search/remove 基准，对照 java.util.TreeMap
+ */
+public class BSTreeBenchmark {
+
+    private final int n;
+
+    public BSTreeBenchmark(int n) {
+        this.n = n;
+    }
+
+    public void run(Bench bench, KeyPattern pattern) {
+        run(bench, pattern, false);
+        run(bench, pattern, true);
+        runPrimitive(bench, pattern);
+        runFrozen(bench, pattern);
+        runMap(bench, pattern);
+        runBPlus(bench, pattern);
+        runPersistent(bench, pattern);
+        runInstrumented(bench, pattern);
+    }
+
+    /**
+     * 打开统计指标的自平衡 BSTree，与 BSTree(balanced) 的同名测量项相减就是统计的开销
+     */
+    private void runInstrumented(Bench bench, KeyPattern pattern) {
+        int[] raw = pattern.keys(n, 42);
+        final Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = raw[i];
+        }
+        final MetricsRegistry metrics = new MetricsRegistry();
+
+        bench.run("BSTree(balanced, metrics).insert " + pattern, n, () -> {
+            BSTree<Integer> tree = new BSTree<>(true);
+            tree.setMetrics(metrics);
+            for (Integer key : keys) {
+                tree.insert(key);
+            }
+            return tree.maximum();
+        });
+
+        final BSTree<Integer> tree = new BSTree<>(true);
+        for (Integer key : keys) {
+            tree.insert(key);
+        }
+        tree.setMetrics(metrics);
+        bench.run("BSTree(balanced, metrics).search " + pattern, n, () -> {
+            long found = 0;
+            for (Integer key : keys) {
+                if (tree.search(key) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * 路径复制的持久化树：每次插入都产生一个新版本
+     */
+    private void runPersistent(Bench bench, KeyPattern pattern) {
+        int[] raw = pattern.keys(n, 42);
+        final Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = raw[i];
+        }
+
+        bench.run("PersistentBSTree.insert " + pattern, n, () -> {
+            PersistentBSTree<Integer> tree = PersistentBSTree.empty();
+            for (Integer key : keys) {
+                tree = tree.insert(key);
+            }
+            return tree.size();
+        });
+
+        PersistentBSTree<Integer> built = PersistentBSTree.empty();
+        for (Integer key : keys) {
+            built = built.insert(key);
+        }
+        final PersistentBSTree<Integer> tree = built;
+        bench.run("PersistentBSTree.search " + pattern, n, () -> {
+            long found = 0;
+            for (Integer key : keys) {
+                if (tree.search(key) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * 结点内用数组存放键值的 B+树，对照自平衡 BSTree 的同名测量项
+     */
+    private void runBPlus(Bench bench, KeyPattern pattern) {
+        int[] raw = pattern.keys(n, 42);
+        final Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = raw[i];
+        }
+
+        bench.run("BPlusTree.insert " + pattern, n, () -> {
+            BPlusTree<Integer> tree = new BPlusTree<>();
+            for (Integer key : keys) {
+                tree.insert(key);
+            }
+            return tree.size();
+        });
+
+        final BPlusTree<Integer> tree = new BPlusTree<>();
+        for (Integer key : keys) {
+            tree.insert(key);
+        }
+
+        bench.run("BPlusTree.search " + pattern, n, () -> {
+            long found = 0;
+            for (Integer key : keys) {
+                if (tree.search(key) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+
+        bench.run("BPlusTree.iterate " + pattern, n, () -> {
+            long sum = 0;
+            for (Integer key : tree) {
+                sum += key;
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * 键值对版本 BSTMap 的计数场景(merge)，对照 TreeMap.merge
+     */
+    private void runMap(Bench bench, KeyPattern pattern) {
+        int[] raw = pattern.keys(n, 42);
+        final Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = raw[i];
+        }
+        final Integer one = 1;
+
+        bench.run("BSTMap.merge " + pattern, n, () -> {
+            BSTMap<Integer, Integer> map = new BSTMap<>();
+            for (Integer key : keys) {
+                map.merge(key, one, Integer::sum);
+            }
+            return map.size();
+        });
+
+        bench.run("TreeMap.merge " + pattern, n, () -> {
+            TreeMap<Integer, Integer> map = new TreeMap<>();
+            for (Integer key : keys) {
+                map.merge(key, one, Integer::sum);
+            }
+            return map.size();
+        });
+
+        final BSTMap<Integer, Integer> map = new BSTMap<>();
+        for (Integer key : keys) {
+            map.put(key, key);
+        }
+        bench.run("BSTMap.get " + pattern, n, () -> {
+            long found = 0;
+            for (Integer key : keys) {
+                if (map.get(key) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * 只读快照的查找，对照同样键值的自平衡 BSTree
+     */
+    private void runFrozen(Bench bench, KeyPattern pattern) {
+        final int[] raw = pattern.keys(n, 42);
+        final Integer[] keys = new Integer[n];
+        BSTree<Integer> tree = new BSTree<>(true);
+        LongBSTree longTree = new LongBSTree();
+        IntBSTree intTree = new IntBSTree();
+        for (int i = 0; i < n; i++) {
+            keys[i] = raw[i];
+            tree.insert(keys[i]);
+            longTree.insert(raw[i]);
+            intTree.insert(raw[i]);
+        }
+        final FrozenBSTree<Integer> frozen = tree.freeze();
+        final FrozenLongBSTree frozenLong = longTree.freeze();
+        final FrozenIntBSTree frozenInt = intTree.freeze();
+
+        bench.run("FrozenBSTree.search " + pattern, n, () -> {
+            long found = 0;
+            for (Integer key : keys) {
+                if (frozen.search(key) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+
+        bench.run("FrozenLongBSTree.contains " + pattern, n, () -> {
+            long found = 0;
+            for (int key : raw) {
+                if (frozenLong.contains(key)) {
+                    found++;
+                }
+            }
+            return found;
+        });
+
+        bench.run("FrozenIntBSTree.contains " + pattern, n, () -> {
+            long found = 0;
+            for (int key : raw) {
+                if (frozenInt.contains(key)) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * 数组存放结点的 LongBSTree，与 BSTree 的默认模式一样不做平衡
+     */
+    private void runPrimitive(Bench bench, KeyPattern pattern) {
+        final int[] keys = pattern.keys(n, 42);
+
+        bench.run("LongBSTree.insert " + pattern, n, () -> {
+            LongBSTree tree = new LongBSTree();
+            for (int key : keys) {
+                tree.insert(key);
+            }
+            return tree.size();
+        });
+
+        final LongBSTree tree = new LongBSTree();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+
+        bench.run("LongBSTree.search " + pattern, n, () -> {
+            long found = 0;
+            for (int key : keys) {
+                if (tree.search(key) != ArrayBSTree.NIL) {
+                    found++;
+                }
+            }
+            return found;
+        });
+    }
+
+    private void run(Bench bench, KeyPattern pattern, final boolean balanced) {
+        final String name = balanced ? "BSTree(balanced)" : "BSTree";
+        int[] raw = pattern.keys(n, 42);
+        final Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = raw[i];
+        }
+
+        bench.run(name + ".insert " + pattern, n, () -> {
+            BSTree<Integer> tree = new BSTree<>(balanced);
+            for (Integer key : keys) {
+                tree.insert(key);
+            }
+            return tree.maximum();
+        });
+
+        final List<Integer> keyList = Arrays.asList(keys);
+        bench.run(name + ".addAll " + pattern, n, () -> {
+            BSTree<Integer> tree = new BSTree<>(balanced);
+            tree.addAll(keyList);
+            return tree.size();
+        });
+
+        // TreeMap 对照组只跑一次
+        if (!balanced) {
+            bench.run("TreeMap.put " + pattern, n, () -> {
+                TreeMap<Integer, Integer> map = new TreeMap<>();
+                for (Integer key : keys) {
+                    map.put(key, key);
+                }
+                return map.lastKey();
+            });
+        }
+
+        final BSTree<Integer> tree = new BSTree<>(balanced);
+        final TreeMap<Integer, Integer> map = new TreeMap<>();
+        for (Integer key : keys) {
+            tree.insert(key);
+            map.put(key, key);
+        }
+
+        bench.run(name + ".search " + pattern, n, () -> {
+            long found = 0;
+            for (Integer key : keys) {
+                if (tree.search(key) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+
+        if (!balanced) {
+            bench.run("TreeMap.get " + pattern, n, () -> {
+                long found = 0;
+                for (Integer key : keys) {
+                    if (map.get(key) != null) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+        }
+
+        bench.run(name + ".insert/remove " + pattern, n, () -> {
+            BSTree<Integer> t = new BSTree<>(balanced);
+            for (Integer key : keys) {
+                t.insert(key);
+            }
+            for (Integer key : keys) {
+                t.remove(key);
+            }
+            return 0;
+        });
+
+        if (!balanced) {
+            bench.run("TreeMap.put/remove " + pattern, n, () -> {
+                TreeMap<Integer, Integer> m = new TreeMap<>();
+                for (Integer key : keys) {
+                    m.put(key, key);
+                }
+                for (Integer key : keys) {
+                    m.remove(key);
+                }
+                return m.size();
+            });
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 简易基准测试框架
+ * <p>
+ * 工程没有构建文件，引不进 JMH，这里用预热 + 多轮测量的方式近似 JMH 的 AverageTime 模式，
+ * 并通过 ThreadMXBean 统计当前线程的分配字节数，近似 JMH 的 GC profiler(gc.alloc.rate.norm)。
+ */
+public final class Bench {
+
+    // 防止 JIT 把测量代码当成死代码消除
+    private static volatile long sink;
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final int warmups;
+    private final int iterations;
+
+    public Bench(int warmups, int iterations) {
+        this.warmups = warmups;
+        this.iterations = iterations;
+    }
+
+    /**
+     * 被测量的操作，返回值会被吸收，避免死代码消除
+     */
+    @FunctionalInterface
+    public interface Op {
+        long run();
+    }
+
+    /**
+     * 运行一个测量项并打印结果
+     *
+     * @param name 测量项名称
+     * @param ops  每次调用包含的操作数，用来折算 ns/op 与 B/op
+     * @param op   被测量的操作
+     * @return 测量结果
+     */
+    public Result run(String name, int ops, Op op) {
+        for (int i = 0; i < warmups; i++) {
+            sink += op.run();
+        }
+
+        long gcCount = gcCount();
+        long gcTime = gcTime();
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+
+        long total = (long) ops * iterations;
+        Result result = new Result(name, (double) elapsed / total, bytes < 0 ? -1 : (double) bytes / total,
+                gcCount() - gcCount, gcTime() - gcTime);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * 当前线程累计分配的字节数，JVM 不支持时返回 -1
+     */
+    private static long allocatedBytes() {
+        if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * 测量结果
+     */
+    public static final class Result {
+        public final String name;
+        // 每个操作的平均耗时(纳秒)
+        public final double nsPerOp;
+        // 每个操作的平均分配字节数，-1 表示不支持统计
+        public final double bytesPerOp;
+        // 测量期间发生的 GC 次数与耗时(毫秒)
+        public final long gcCount;
+        public final long gcTimeMs;
+
+        Result(String name, double nsPerOp, double bytesPerOp, long gcCount, long gcTimeMs) {
+            this.name = name;
+            this.nsPerOp = nsPerOp;
+            this.bytesPerOp = bytesPerOp;
+            this.gcCount = gcCount;
+            this.gcTimeMs = gcTimeMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-48s %10.2f ns/op %10.2f B/op %4d gc %6d ms", name, nsPerOp, bytesPerOp, gcCount, gcTimeMs);
+        }
+    }
+}
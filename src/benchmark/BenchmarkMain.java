@@ -0,0 +1,70 @@
+package benchmark;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 用法: java benchmark.BenchmarkMain [元素个数] [预热轮数] [测量轮数] [最大线程数]
+ * <p>
+ * 建议加上 -Xms 与 -Xmx 设成相同的值，减少堆伸缩对结果的干扰。
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int warmups = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Math.min(64, Runtime.getRuntime().availableProcessors() * 2);
+
+        Bench bench = new Bench(warmups, iterations);
+
+        System.out.println("== Stack ");
+        new StackBenchmark(n).run(bench);
+
+        System.out.println("== Queue ");
+        new QueueBenchmark(n).run(bench);
+
+        // 链表的按位置访问是 O(n) 的，元素个数缩小一些
+        System.out.println("== DoubleLink ");
+        DoubleLinkBenchmark dlink = new DoubleLinkBenchmark(Math.max(1, n / 4));
+        dlink.runScan(bench);
+        for (KeyPattern pattern : KeyPattern.values()) {
+            dlink.run(bench, pattern);
+        }
+
+        System.out.println("== BSTree ");
+        BSTreeBenchmark bst = new BSTreeBenchmark(n);
+        for (KeyPattern pattern : KeyPattern.values()) {
+            bst.run(bench, pattern);
+        }
+
+        System.out.println("== Heap ");
+        HeapBenchmark heap = new HeapBenchmark(n);
+        for (KeyPattern pattern : KeyPattern.values()) {
+            heap.run(bench, pattern);
+        }
+
+        System.out.println("== Cache ");
+        CacheBenchmark cache = new CacheBenchmark(n);
+        for (KeyPattern pattern : KeyPattern.values()) {
+            cache.run(bench, pattern);
+        }
+
+        // 每次测量都要读文件，元素个数放大一些让文件打开的固定开销不占主导
+        System.out.println("== Snapshot ");
+        SnapshotBenchmark snapshot = new SnapshotBenchmark(n * 16);
+        for (KeyPattern pattern : KeyPattern.values()) {
+            snapshot.run(bench, pattern);
+        }
+
+        ScalingBench scaling = new ScalingBench(200, 500);
+
+        System.out.println("== ConcurrentStack ");
+        new ConcurrentStackBenchmark().run(scaling, maxThreads);
+
+        System.out.println("== BlockingQueue ");
+        new BlockingQueueBenchmark(1024).run(scaling, maxThreads);
+
+        System.out.println("== ConcurrentOrderedSet ");
+        new ConcurrentOrderedSetBenchmark(n).run(scaling, maxThreads);
+    }
+}
@@ -0,0 +1,149 @@
+package benchmark;
+
+import data_structure.array.BoundedBlockingQueue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 有界阻塞队列的吞吐量：一半线程生产、一半线程消费，对照 java.util.concurrent.ArrayBlockingQueue
+ * <p>
+ * offer/poll 不会阻塞，交给 ScalingBench 按固定时长测量；
+ * put/take 会挂起线程，到点就停的测量方式会把线程留在 put/take 上，
+ * 所以改为每个生产者放入固定个数的元素，消费者取走同样多的元素，全部线程结束后按耗时计算吞吐量。
+ * 只有 put/take 这一轮会出现等待，队列的等待统计看这一轮
+ */
+public class BlockingQueueBenchmark {
+
+    private final int capacity;
+    private final int itemsPerProducer;
+
+    public BlockingQueueBenchmark(int capacity) {
+        this(capacity, 200000);
+    }
+
+    /**
+     * @param capacity         队列容量
+     * @param itemsPerProducer put/take 测量中每个生产者放入的元素个数
+     */
+    public BlockingQueueBenchmark(int capacity, int itemsPerProducer) {
+        this.capacity = capacity;
+        this.itemsPerProducer = itemsPerProducer;
+    }
+
+    public void run(ScalingBench bench, int maxThreads) throws InterruptedException {
+        for (int threads = 2; threads <= Math.max(2, maxThreads); threads <<= 1) {
+            final BoundedBlockingQueue<Integer> queue = new BoundedBlockingQueue<>(capacity);
+            final Integer item = 1;
+            bench.run("BoundedBlockingQueue.offer/poll", threads, (t, i) -> {
+                if ((t & 1) == 0) {
+                    return queue.offer(item) ? 1 : 0;
+                }
+                Integer v = queue.poll();
+                return v == null ? 0 : v;
+            });
+            System.out.println("    " + queue);
+
+            final ArrayBlockingQueue<Integer> jdk = new ArrayBlockingQueue<>(capacity);
+            bench.run("ArrayBlockingQueue.offer/poll", threads, (t, i) -> {
+                if ((t & 1) == 0) {
+                    return jdk.offer(item) ? 1 : 0;
+                }
+                Integer v = jdk.poll();
+                return v == null ? 0 : v;
+            });
+
+            // offer/poll 的计时结束后队列里可能剩有元素，put/take 用新的队列
+            final BoundedBlockingQueue<Integer> blocking = new BoundedBlockingQueue<>(capacity);
+            runPutTake("BoundedBlockingQueue.put/take", threads, blocking::put, blocking::take);
+            blocking.resetMetrics();
+            runPutTake("BoundedBlockingQueue.put/take", threads, blocking::put, blocking::take, true);
+            System.out.println("    " + blocking);
+
+            final ArrayBlockingQueue<Integer> jdkBlocking = new ArrayBlockingQueue<>(capacity);
+            runPutTake("ArrayBlockingQueue.put/take", threads, jdkBlocking::put, jdkBlocking::take);
+            runPutTake("ArrayBlockingQueue.put/take", threads, jdkBlocking::put, jdkBlocking::take, true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Put {
+        void put(Integer item) throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface Take {
+        Integer take() throws InterruptedException;
+    }
+
+    /**
+     * 预热：同样的测量跑一遍但不打印
+     */
+    private void runPutTake(String name, int threads, Put put, Take take) throws InterruptedException {
+        runPutTake(name, threads, put, take, false);
+    }
+
+    /**
+     * threads/2个生产者各放入itemsPerProducer个元素，同样多的消费者各取走itemsPerProducer个元素，
+     * 放入和取走的总数相等，所有线程都能结束，最后逐个join
+     *
+     * @param print 是否打印吞吐量
+     * @return 每秒操作数，一次put或一次take算一个操作
+     */
+    private double runPutTake(String name, int threads, Put put, Take take, boolean print) throws InterruptedException {
+        final int pairs = Math.max(1, threads / 2);
+        final CountDownLatch start = new CountDownLatch(1);
+        final long[] sums = new long[pairs];
+        Thread[] workers = new Thread[pairs * 2];
+        for (int p = 0; p < pairs; p++) {
+            final int index = p;
+            workers[2 * p] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < itemsPerProducer; i++) {
+                        put.put(i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            workers[2 * p + 1] = new Thread(() -> {
+                long sum = 0;
+                try {
+                    start.await();
+                    for (int i = 0; i < itemsPerProducer; i++) {
+                        sum += take.take();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sums[index] = sum;
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        // 每个元素恰好被取走一次
+        long expected = (long) itemsPerProducer * (itemsPerProducer - 1) / 2 * pairs;
+        long actual = 0;
+        for (long sum : sums) {
+            actual += sum;
+        }
+        if (actual != expected) {
+            throw new IllegalStateException(name + ": 取走的元素之和是" + actual + "，期望" + expected);
+        }
+
+        double opsPerSec = 2.0 * itemsPerProducer * pairs * 1e9 / elapsed;
+        if (print) {
+            System.out.println(String.format("%-48s %3d threads %14.0f ops/s", name, pairs * 2, opsPerSec));
+        }
+        return opsPerSec;
+    }
+}
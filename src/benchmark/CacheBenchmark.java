@@ -0,0 +1,71 @@
+package benchmark;
+
+import data_structure.array.LfuCache;
+import data_structure.array.LruCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LruCache/LfuCache 的 get/put 基准，对照按访问顺序排列的 java.util.LinkedHashMap
+ * <p>
+ * 键的取值范围是[0, n)，缓存容量是 n/8，未命中时 put
+ */
+public class CacheBenchmark {
+
+    private final int n;
+    private final Integer[] values;
+
+    public CacheBenchmark(int n) {
+        this.n = n;
+        values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+    }
+
+    public void run(Bench bench, KeyPattern pattern) {
+        final int[] keys = pattern.keys(n, 42);
+        final int capacity = Math.max(1, n / 8);
+
+        final LruCache<Integer, Integer> lru = new LruCache<>(capacity);
+        bench.run("LruCache.get/put " + pattern, n, () -> {
+            for (int k : keys) {
+                Integer key = values[k];
+                if (lru.get(key) == null) {
+                    lru.put(key, key);
+                }
+            }
+            return lru.size();
+        });
+        System.out.printf("    hitRate=%.3f%n", lru.hitRate());
+
+        final LfuCache<Integer, Integer> lfu = new LfuCache<>(capacity);
+        bench.run("LfuCache.get/put " + pattern, n, () -> {
+            for (int k : keys) {
+                Integer key = values[k];
+                if (lfu.get(key) == null) {
+                    lfu.put(key, key);
+                }
+            }
+            return lfu.size();
+        });
+        System.out.printf("    hitRate=%.3f%n", lfu.hitRate());
+
+        final Map<Integer, Integer> linked = new LinkedHashMap<Integer, Integer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > capacity;
+            }
+        };
+        bench.run("LinkedHashMap(LRU).get/put " + pattern, n, () -> {
+            for (int k : keys) {
+                Integer key = values[k];
+                if (linked.get(key) == null) {
+                    linked.put(key, key);
+                }
+            }
+            return linked.size();
+        });
+    }
+}
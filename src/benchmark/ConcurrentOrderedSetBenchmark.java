@@ -0,0 +1,102 @@
+package benchmark;
+
+import data_structure.tree.BSTree;
+import data_structure.tree.LockFreeSkipList;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 并发有序集合的扩展性测试：读多写少的混合负载(90% search, 5% insert, 5% remove)，
+ * 对照读写锁保护的红黑树 BSTree 与 java.util.concurrent.ConcurrentSkipListSet
+ */
+public class ConcurrentOrderedSetBenchmark {
+
+    private final int range;
+
+    /**
+     * @param range 键的取值范围[0, range)，测试前预先插入一半
+     */
+    public ConcurrentOrderedSetBenchmark(int range) {
+        this.range = range;
+    }
+
+    public void run(ScalingBench bench, int maxThreads) throws InterruptedException {
+        for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+            final LockFreeSkipList<Integer> skipList = new LockFreeSkipList<>();
+            for (int key : KeyPattern.RANDOM.keys(range, 42)) {
+                if ((key & 1) == 0) {
+                    skipList.insert(key);
+                }
+            }
+            bench.run("LockFreeSkipList.mixed", threads, (t, i) -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Integer key = random.nextInt(range);
+                int op = random.nextInt(100);
+                if (op < 5) {
+                    return skipList.insert(key) ? 1 : 0;
+                } else if (op < 10) {
+                    return skipList.remove(key) ? 1 : 0;
+                }
+                return skipList.contains(key) ? 1 : 0;
+            });
+
+            final BSTree<Integer> tree = new BSTree<>(true);
+            final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+            for (int key : KeyPattern.RANDOM.keys(range, 42)) {
+                if ((key & 1) == 0) {
+                    tree.insert(key);
+                }
+            }
+            bench.run("ReadWriteLock BSTree.mixed", threads, (t, i) -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Integer key = random.nextInt(range);
+                int op = random.nextInt(100);
+                if (op < 10) {
+                    lock.writeLock().lock();
+                    try {
+                        if (op < 5) {
+                            if (tree.search(key) == null) {
+                                tree.insert(key);
+                                return 1;
+                            }
+                            return 0;
+                        }
+                        if (tree.search(key) != null) {
+                            tree.remove(key);
+                            return 1;
+                        }
+                        return 0;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+                lock.readLock().lock();
+                try {
+                    return tree.search(key) != null ? 1 : 0;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+
+            final ConcurrentSkipListSet<Integer> jdk = new ConcurrentSkipListSet<>();
+            for (int key : KeyPattern.RANDOM.keys(range, 42)) {
+                if ((key & 1) == 0) {
+                    jdk.add(key);
+                }
+            }
+            bench.run("ConcurrentSkipListSet.mixed", threads, (t, i) -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Integer key = random.nextInt(range);
+                int op = random.nextInt(100);
+                if (op < 5) {
+                    return jdk.add(key) ? 1 : 0;
+                } else if (op < 10) {
+                    return jdk.remove(key) ? 1 : 0;
+                }
+                return jdk.contains(key) ? 1 : 0;
+            });
+        }
+    }
+}
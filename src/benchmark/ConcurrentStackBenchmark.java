@@ -0,0 +1,39 @@
+package benchmark;
+
+import data_structure.array.ConcurrentStack;
+import data_structure.array.Stack;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * 并发栈的扩展性测试：每个线程交替 push/pop，对照加锁的 Stack 与 java.util.concurrent.ConcurrentLinkedDeque
+ */
+public class ConcurrentStackBenchmark {
+
+    public void run(ScalingBench bench, int maxThreads) throws InterruptedException {
+        for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+            final ConcurrentStack<Integer> stack = new ConcurrentStack<>();
+            bench.run("ConcurrentStack.push/pop", threads, (t, i) -> {
+                stack.push(t);
+                Integer v = stack.pop();
+                return v == null ? 0 : v;
+            });
+            System.out.println("    " + stack);
+
+            final Stack<Integer> locked = new Stack<>(Integer.class);
+            bench.run("synchronized Stack.push/pop", threads, (t, i) -> {
+                synchronized (locked) {
+                    locked.push(t);
+                    return locked.pop();
+                }
+            });
+
+            final ConcurrentLinkedDeque<Integer> deque = new ConcurrentLinkedDeque<>();
+            bench.run("ConcurrentLinkedDeque.push/pop", threads, (t, i) -> {
+                deque.push(t);
+                Integer v = deque.pollFirst();
+                return v == null ? 0 : v;
+            });
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package benchmark;
+
+import data_structure.array.DoubleLink;
+import data_structure.array.UnrolledDoubleLink;
+
+import java.util.LinkedList;
+
+/**
+ * DoubleLink 与展开链表 UnrolledDoubleLink 的 get/insert/del 基准，对照 java.util.LinkedList
+ */
+public class DoubleLinkBenchmark {
+
+    private final int n;
+    private final Integer[] values;
+
+    public DoubleLinkBenchmark(int n) {
+        this.n = n;
+        values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+    }
+
+    /**
+     * 顺序遍历全部元素
+     */
+    public void runScan(Bench bench) {
+        final DoubleLink<Integer> dlink = new DoubleLink<>();
+        final UnrolledDoubleLink<Integer> unrolled = new UnrolledDoubleLink<>();
+        final LinkedList<Integer> list = new LinkedList<>();
+        for (int i = 0; i < n; i++) {
+            dlink.appendLast(values[i]);
+            unrolled.appendLast(values[i]);
+            list.add(values[i]);
+        }
+
+        bench.run("DoubleLink.iterate", n, () -> {
+            long sum = 0;
+            for (Integer v : dlink) {
+                sum += v;
+            }
+            return sum;
+        });
+
+        bench.run("UnrolledDoubleLink.iterate", n, () -> {
+            long sum = 0;
+            for (Integer v : unrolled) {
+                sum += v;
+            }
+            return sum;
+        });
+
+        bench.run("LinkedList.iterate", n, () -> {
+            long sum = 0;
+            for (Integer v : list) {
+                sum += v;
+            }
+            return sum;
+        });
+    }
+
+    public void run(Bench bench, KeyPattern pattern) {
+        // 访问位置按键分布生成，取值范围是[0, n)
+        final int[] positions = pattern.keys(n, 42);
+
+        final DoubleLink<Integer> dlink = new DoubleLink<>();
+        final UnrolledDoubleLink<Integer> unrolled = new UnrolledDoubleLink<>();
+        final LinkedList<Integer> list = new LinkedList<>();
+        for (int i = 0; i < n; i++) {
+            dlink.appendLast(values[i]);
+            unrolled.appendLast(values[i]);
+            list.add(values[i]);
+        }
+
+        bench.run("DoubleLink.get " + pattern, n, () -> {
+            long sum = 0;
+            for (int p : positions) {
+                sum += dlink.get(p);
+            }
+            return sum;
+        });
+
+        bench.run("UnrolledDoubleLink.get " + pattern, n, () -> {
+            long sum = 0;
+            for (int p : positions) {
+                sum += unrolled.get(p);
+            }
+            return sum;
+        });
+
+        bench.run("LinkedList.get " + pattern, n, () -> {
+            long sum = 0;
+            for (int p : positions) {
+                sum += list.get(p);
+            }
+            return sum;
+        });
+
+        // 每个位置先插入再删除，链表长度保持不变
+        bench.run("DoubleLink.insert/del " + pattern, n * 2, () -> {
+            for (int p : positions) {
+                dlink.insert(p, values[p]);
+                dlink.del(p);
+            }
+            return dlink.size();
+        });
+
+        bench.run("UnrolledDoubleLink.insert/del " + pattern, n * 2, () -> {
+            for (int p : positions) {
+                unrolled.insert(p, values[p]);
+                unrolled.del(p);
+            }
+            return unrolled.size();
+        });
+
+        bench.run("LinkedList.insert/del " + pattern, n * 2, () -> {
+            for (int p : positions) {
+                list.add(p, values[p]);
+                list.remove(p);
+            }
+            return list.size();
+        });
+    }
+}
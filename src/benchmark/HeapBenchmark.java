@@ -0,0 +1,94 @@
+package benchmark;
+
+import data_structure.array.DaryHeap;
+import data_structure.array.IndexedLongHeap;
+import data_structure.tree.BSTree;
+
+import java.util.PriorityQueue;
+
+/**
+ * 优先队列基准：先全部入堆再全部出堆，对照 java.util.PriorityQueue 与当作优先队列用的 BSTree
+ */
+public class HeapBenchmark {
+
+    private final int n;
+    private final Integer[] values;
+
+    public HeapBenchmark(int n) {
+        this.n = n;
+        values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+    }
+
+    public void run(Bench bench, KeyPattern pattern) {
+        final int[] raw = pattern.keys(n, 42);
+        final Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = values[raw[i]];
+        }
+
+        for (final int arity : new int[]{2, 4, 8}) {
+            bench.run("DaryHeap(d=" + arity + ").offer/poll " + pattern, n * 2, () -> {
+                DaryHeap<Integer> heap = new DaryHeap<>(arity, null, false);
+                for (Integer key : keys) {
+                    heap.offer(key);
+                }
+                long sum = 0;
+                while (!heap.isEmpty()) {
+                    sum += heap.poll();
+                }
+                return sum;
+            });
+        }
+
+        bench.run("DaryHeap.heapify/poll " + pattern, n * 2, () -> {
+            DaryHeap<Integer> heap = DaryHeap.heapify(keys, null);
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                sum += heap.poll();
+            }
+            return sum;
+        });
+
+        bench.run("PriorityQueue.offer/poll " + pattern, n * 2, () -> {
+            PriorityQueue<Integer> heap = new PriorityQueue<>();
+            for (Integer key : keys) {
+                heap.offer(key);
+            }
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                sum += heap.poll();
+            }
+            return sum;
+        });
+
+        bench.run("BSTree(balanced).insert/remove min " + pattern, n * 2, () -> {
+            BSTree<Integer> tree = new BSTree<>(true);
+            for (Integer key : keys) {
+                tree.insert(key);
+            }
+            long sum = 0;
+            while (!tree.isEmpty()) {
+                Integer min = tree.minimum();
+                tree.remove(min);
+                sum += min;
+            }
+            return sum;
+        });
+
+        // 编号就是位置，优先级是键，SKEWED 下有重复的优先级
+        final IndexedLongHeap indexed = new IndexedLongHeap(n);
+        bench.run("IndexedLongHeap.insert/poll " + pattern, n * 2, () -> {
+            for (int id = 0; id < n; id++) {
+                indexed.insert(id, raw[id]);
+            }
+            long sum = 0;
+            while (!indexed.isEmpty()) {
+                sum += indexed.pollId();
+            }
+            return sum;
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * 测试用的键分布
+ */
+public enum KeyPattern {
+
+    /**
+     * 0..n-1 的随机排列
+     */
+    RANDOM {
+        @Override
+        public int[] keys(int n, long seed) {
+            int[] keys = SORTED.keys(n, seed);
+            Random random = new Random(seed);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = keys[i];
+                keys[i] = keys[j];
+                keys[j] = tmp;
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * 0..n-1 升序
+     */
+    SORTED {
+        @Override
+        public int[] keys(int n, long seed) {
+            int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = i;
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * 偏斜分布：大量键集中在较小的区间内，有重复
+     */
+    SKEWED {
+        @Override
+        public int[] keys(int n, long seed) {
+            int[] keys = new int[n];
+            Random random = new Random(seed);
+            for (int i = 0; i < n; i++) {
+                double r = random.nextDouble();
+                keys[i] = (int) (n * r * r * r * r);
+            }
+            return keys;
+        }
+    };
+
+    /**
+     * 生成n个键，取值范围是[0, n)
+     *
+     * @param n    个数
+     * @param seed 随机种子
+     * @return 键数组
+     */
+    public abstract int[] keys(int n, long seed);
+}
@@ -0,0 +1,123 @@
+package benchmark;
+
+import data_structure.array.Queue;
+
+import java.util.ArrayDeque;
+import java.util.LinkedList;
+
+/**
+ * Queue 的 add/remove 基准，对照 java.util.ArrayDeque 与 java.util.LinkedList
+ */
+public class QueueBenchmark {
+
+    private final Integer[] values;
+
+    public QueueBenchmark(int n) {
+        values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+    }
+
+    public void run(Bench bench) {
+        final int n = values.length;
+
+        // 每轮新建队列：先全部入队，再全部出队，扩容的开销也计算在内
+        bench.run("Queue.add/remove", n * 2, () -> {
+            Queue<Integer> queue = new Queue<>();
+            for (int i = 0; i < n; i++) {
+                queue.add(values[i]);
+            }
+            long sum = 0;
+            while (!queue.isEmpty()) {
+                sum += queue.remove();
+            }
+            return sum;
+        });
+
+        bench.run("ArrayDeque.add/remove", n * 2, () -> {
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int i = 0; i < n; i++) {
+                queue.add(values[i]);
+            }
+            long sum = 0;
+            while (!queue.isEmpty()) {
+                sum += queue.remove();
+            }
+            return sum;
+        });
+
+        bench.run("LinkedList.add/remove", n * 2, () -> {
+            LinkedList<Integer> queue = new LinkedList<>();
+            for (int i = 0; i < n; i++) {
+                queue.add(values[i]);
+            }
+            long sum = 0;
+            while (!queue.isEmpty()) {
+                sum += queue.remove();
+            }
+            return sum;
+        });
+
+        // 稳态：同一个队列反复少量入队再出队，占用很小，不应再分配内存
+        final Queue<Integer> steady = new Queue<>();
+        bench.run("Queue.add/remove steady", n * 2, () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i += 8) {
+                int end = Math.min(n, i + 8);
+                for (int j = i; j < end; j++) {
+                    steady.add(values[j]);
+                }
+                while (!steady.isEmpty()) {
+                    sum += steady.remove();
+                }
+            }
+            return sum;
+        });
+
+        // 批量：每次入队、出队64个
+        final Queue<Integer> batched = new Queue<>();
+        final Integer[] buffer = new Integer[64];
+        bench.run("Queue.addAll/drainTo batch=64", n * 2, () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i += buffer.length) {
+                int len = Math.min(buffer.length, n - i);
+                batched.addAll(values, i, len);
+                int drained = batched.drainTo(buffer, len);
+                for (int j = 0; j < drained; j++) {
+                    sum += buffer[j];
+                }
+            }
+            return sum;
+        });
+
+        bench.run("Queue.add/remove batch=64", n * 2, () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i += buffer.length) {
+                int end = Math.min(n, i + buffer.length);
+                for (int j = i; j < end; j++) {
+                    batched.add(values[j]);
+                }
+                while (!batched.isEmpty()) {
+                    sum += batched.remove();
+                }
+            }
+            return sum;
+        });
+
+        final ArrayDeque<Integer> steadyDeque = new ArrayDeque<>();
+        bench.run("ArrayDeque.add/remove steady", n * 2, () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i += 8) {
+                int end = Math.min(n, i + 8);
+                for (int j = i; j < end; j++) {
+                    steadyDeque.add(values[j]);
+                }
+                while (!steadyDeque.isEmpty()) {
+                    sum += steadyDeque.remove();
+                }
+            }
+            return sum;
+        });
+    }
+}
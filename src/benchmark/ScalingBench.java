@@ -0,0 +1,79 @@
+package benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多线程吞吐量测试：固定时长内统计全部线程完成的操作数
+ */
+public final class ScalingBench {
+
+    // 防止 JIT 把测量代码当成死代码消除
+    private static volatile long sink;
+
+    private final long warmupMillis;
+    private final long measureMillis;
+
+    public ScalingBench(long warmupMillis, long measureMillis) {
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+    }
+
+    /**
+     * 每个线程反复执行的操作，一次调用算一个操作
+     */
+    @FunctionalInterface
+    public interface Op {
+        long run(int threadIndex, long iteration);
+    }
+
+    /**
+     * 用threads个线程运行op，打印并返回吞吐量
+     *
+     * @param name    测量项名称
+     * @param threads 线程数
+     * @param op      被测量的操作
+     * @return 每秒操作数
+     */
+    public double run(String name, int threads, Op op) throws InterruptedException {
+        runFor(threads, warmupMillis, op);
+        long ops = runFor(threads, measureMillis, op);
+        double opsPerSec = ops * 1000.0 / measureMillis;
+        System.out.println(String.format("%-48s %3d threads %14.0f ops/s", name, threads, opsPerSec));
+        return opsPerSec;
+    }
+
+    private long runFor(int threads, long millis, Op op) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final LongAdder total = new LongAdder();
+        final long[] deadline = new long[1];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                long acc = 0;
+                // 每隔一批操作才检查一次时间
+                while (System.nanoTime() < deadline[0]) {
+                    for (int i = 0; i < 64; i++) {
+                        acc += op.run(index, count++);
+                    }
+                }
+                sink += acc;
+                total.add(count);
+            });
+            workers[t].start();
+        }
+        deadline[0] = System.nanoTime() + millis * 1000000L;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return total.sum();
+    }
+}
@@ -0,0 +1,104 @@
+package benchmark;
+
+import data_structure.array.DoubleLink;
+import data_structure.io.KeyCodecs;
+import data_structure.io.Snapshots;
+import data_structure.tree.BSTree;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 冷启动基准：从文本文件逐行解析并逐个 insert/appendLast，对照从二进制快照恢复
+ */
+public class SnapshotBenchmark {
+
+    private final int n;
+
+    public SnapshotBenchmark(int n) {
+        this.n = n;
+    }
+
+    public void run(Bench bench, KeyPattern pattern) {
+        try {
+            doRun(bench, pattern);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void doRun(Bench bench, KeyPattern pattern) throws IOException {
+        int[] keys = pattern.keys(n, 42);
+        Path dir = Files.createTempDirectory("snapshot-bench");
+        final Path text = dir.resolve("keys.txt");
+        final Path treeFile = dir.resolve("tree.snap");
+        final Path listFile = dir.resolve("list.snap");
+
+        List<String> lines = new ArrayList<>(n);
+        BSTree<Integer> tree = new BSTree<>(true);
+        DoubleLink<Integer> list = new DoubleLink<>();
+        for (int key : keys) {
+            lines.add(Integer.toString(key));
+            tree.insert(key);
+            list.appendLast(key);
+        }
+        Files.write(text, lines, StandardCharsets.UTF_8);
+        Snapshots.write(tree, KeyCodecs.INT, treeFile);
+        Snapshots.write(list, KeyCodecs.INT, listFile);
+
+        try {
+            bench.run("BSTree text+insert " + pattern, n, () -> {
+                BSTree<Integer> t = new BSTree<>(true);
+                try (BufferedReader reader = Files.newBufferedReader(text, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        t.insert(Integer.valueOf(line));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return t.size();
+            });
+
+            bench.run("BSTree snapshot restore " + pattern, n, () -> {
+                try {
+                    return Snapshots.readBSTree(treeFile, KeyCodecs.INT).size();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            bench.run("DoubleLink text+appendLast " + pattern, n, () -> {
+                DoubleLink<Integer> l = new DoubleLink<>();
+                try (BufferedReader reader = Files.newBufferedReader(text, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        l.appendLast(Integer.valueOf(line));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return l.size();
+            });
+
+            bench.run("DoubleLink snapshot restore " + pattern, n, () -> {
+                try {
+                    return Snapshots.readDoubleLink(listFile, KeyCodecs.INT).size();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            Files.deleteIfExists(text);
+            Files.deleteIfExists(treeFile);
+            Files.deleteIfExists(listFile);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
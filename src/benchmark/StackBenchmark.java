@@ -0,0 +1,98 @@
+package benchmark;
+
+import data_structure.array.IntStack;
+import data_structure.array.Stack;
+
+import java.util.ArrayDeque;
+
+/**
+ * Stack 的 push/pop 基准，对照 java.util.ArrayDeque
+ */
+public class StackBenchmark {
+
+    // 浅栈每轮压栈的深度
+    private static final int DEPTH = 32;
+
+    private final Integer[] values;
+
+    public StackBenchmark(int n) {
+        values = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+    }
+
+    public void run(Bench bench) {
+        final int n = values.length;
+        final Stack<Integer> stack = new Stack<>(Integer.class);
+        final IntStack intStack = new IntStack();
+        final ArrayDeque<Integer> deque = new ArrayDeque<>();
+
+        bench.run("Stack.push/pop", n * 2, () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i += DEPTH) {
+                int end = Math.min(n, i + DEPTH);
+                for (int j = i; j < end; j++) {
+                    stack.push(values[j]);
+                }
+                while (!stack.isEmpty()) {
+                    sum += stack.pop();
+                }
+            }
+            return sum;
+        });
+
+        bench.run("IntStack.push/pop", n * 2, () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i += DEPTH) {
+                int end = Math.min(n, i + DEPTH);
+                for (int j = i; j < end; j++) {
+                    intStack.push(j);
+                }
+                while (!intStack.isEmpty()) {
+                    sum += intStack.pop();
+                }
+            }
+            return sum;
+        });
+
+        bench.run("ArrayDeque.push/pop", n * 2, () -> {
+            long sum = 0;
+            for (int i = 0; i < n; i += DEPTH) {
+                int end = Math.min(n, i + DEPTH);
+                for (int j = i; j < end; j++) {
+                    deque.push(values[j]);
+                }
+                while (!deque.isEmpty()) {
+                    sum += deque.pop();
+                }
+            }
+            return sum;
+        });
+
+        // 深栈：每轮新建，一次压入全部元素再全部弹出，扩容和收缩的开销计算在内
+        bench.run("Stack.push/pop deep", n * 2, () -> {
+            Stack<Integer> s = new Stack<>(Integer.class, 32, 0.25f);
+            for (int i = 0; i < n; i++) {
+                s.push(values[i]);
+            }
+            long sum = 0;
+            while (!s.isEmpty()) {
+                sum += s.pop();
+            }
+            return sum;
+        });
+
+        bench.run("ArrayDeque.push/pop deep", n * 2, () -> {
+            ArrayDeque<Integer> d = new ArrayDeque<>();
+            for (int i = 0; i < n; i++) {
+                d.push(values[i]);
+            }
+            long sum = 0;
+            while (!d.isEmpty()) {
+                sum += d.pop();
+            }
+            return sum;
+        });
+    }
+}
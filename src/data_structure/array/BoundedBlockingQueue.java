@@ -0,0 +1,432 @@
+package data_structure.array;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有界阻塞队列：队列满时生产者阻塞，队列空时消费者阻塞，天然形成背压
+ * <p>
+ * 与 Queue 一样是环形数组，但容量固定、不扩容。所有状态由一把 ReentrantLock 保护，
+ * 阻塞用 notFull/notEmpty 两个 Condition 实现，不使用 synchronized：
+ * Condition 的等待最终通过 LockSupport.park 挂起，在虚拟线程上只会让出载体线程，不会把它钉住(pinning)。
+ * <p>
+ * 同时统计背压相关的指标：当前深度、历史最大深度、生产者/消费者的等待次数与累计等待时间。
+ * 只有真正阻塞时才计时，不阻塞的快速路径上没有额外开销。
+ */
+public class BoundedBlockingQueue<T> {
+
+    private final Object[] items;
+    // 下一次take的位置
+    private int takeIndex;
+    // 下一次put的位置
+    private int putIndex;
+    private int count;
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+
+    // 指标
+    private int maxDepth;
+    private final LongAdder putWaits = new LongAdder();
+    private final LongAdder putWaitNanos = new LongAdder();
+    private final LongAdder takeWaits = new LongAdder();
+    private final LongAdder takeWaitNanos = new LongAdder();
+
+    public BoundedBlockingQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * @param capacity 容量
+     * @param fair     是否按等待的先后顺序唤醒
+     */
+    public BoundedBlockingQueue(int capacity, boolean fair) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        items = new Object[capacity];
+        lock = new ReentrantLock(fair);
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
+    }
+
+    /**
+     * 入队，调用前必须持有锁且队列未满
+     */
+    private void enqueue(T item) {
+        items[putIndex] = item;
+        if (++putIndex == items.length) {
+            putIndex = 0;
+        }
+        if (++count > maxDepth) {
+            maxDepth = count;
+        }
+        notEmpty.signal();
+    }
+
+    /**
+     * 出队，调用前必须持有锁且队列非空
+     */
+    @SuppressWarnings("unchecked")
+    private T dequeue() {
+        T item = (T) items[takeIndex];
+        items[takeIndex] = null;
+        if (++takeIndex == items.length) {
+            takeIndex = 0;
+        }
+        count--;
+        notFull.signal();
+        return item;
+    }
+
+    /**
+     * 入队，队列满时一直等待
+     *
+     * @param item 元素
+     * @throws InterruptedException 等待时被中断
+     */
+    public void put(T item) throws InterruptedException {
+        checkNotNull(item);
+        lock.lockInterruptibly();
+        try {
+            if (count == items.length) {
+                long start = System.nanoTime();
+                putWaits.increment();
+                try {
+                    while (count == items.length) {
+                        notFull.await();
+                    }
+                } finally {
+                    putWaitNanos.add(System.nanoTime() - start);
+                }
+            }
+            enqueue(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 入队，队列满时立即返回
+     *
+     * @param item 元素
+     * @return 是否入队
+     */
+    public boolean offer(T item) {
+        checkNotNull(item);
+        lock.lock();
+        try {
+            if (count == items.length) {
+                return false;
+            }
+            enqueue(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 入队，队列满时最多等待timeout
+     *
+     * @param item    元素
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 是否入队，超时返回false
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        checkNotNull(item);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (count == items.length) {
+                long start = System.nanoTime();
+                putWaits.increment();
+                try {
+                    while (count == items.length) {
+                        if (nanos <= 0) {
+                            return false;
+                        }
+                        nanos = notFull.awaitNanos(nanos);
+                    }
+                } finally {
+                    putWaitNanos.add(System.nanoTime() - start);
+                }
+            }
+            enqueue(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出队，队列空时一直等待
+     *
+     * @return 队头元素
+     * @throws InterruptedException 等待时被中断
+     */
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (count == 0) {
+                long start = System.nanoTime();
+                takeWaits.increment();
+                try {
+                    while (count == 0) {
+                        notEmpty.await();
+                    }
+                } finally {
+                    takeWaitNanos.add(System.nanoTime() - start);
+                }
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出队，队列空时立即返回
+     *
+     * @return 队头元素，队列为空时返回null
+     */
+    public T poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 出队，队列空时最多等待timeout
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 队头元素，超时返回null
+     * @throws InterruptedException 等待时被中断
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (count == 0) {
+                long start = System.nanoTime();
+                takeWaits.increment();
+                try {
+                    while (count == 0) {
+                        if (nanos <= 0) {
+                            return null;
+                        }
+                        nanos = notEmpty.awaitNanos(nanos);
+                    }
+                } finally {
+                    takeWaitNanos.add(System.nanoTime() - start);
+                }
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 查看队头元素，不出队
+     *
+     * @return 队头元素，队列为空时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        lock.lock();
+        try {
+            return (T) items[takeIndex];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 一次加锁移走最多max个元素，不等待
+     *
+     * @param target 接收元素的集合
+     * @param max    最多移走的个数
+     * @return 实际移走的个数
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super T> target, int max) {
+        if (target == null) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            int n = Math.min(count, Math.max(max, 0));
+            int i = 0;
+            try {
+                while (i < n) {
+                    target.add((T) items[takeIndex]);
+                    items[takeIndex] = null;
+                    if (++takeIndex == items.length) {
+                        takeIndex = 0;
+                    }
+                    i++;
+                }
+            } finally {
+                // target.add 抛出异常时，已经加入的元素算作已出队
+                if (i > 0) {
+                    count -= i;
+                    // 腾出了多个位置，唤醒所有等待的生产者
+                    notFull.signalAll();
+                }
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int drainTo(Collection<? super T> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    private static void checkNotNull(Object item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+    }
+
+    /**
+     * 当前深度
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public int remainingCapacity() {
+        return items.length - size();
+    }
+
+    /**
+     * 历史最大深度，接近容量说明消费者跟不上
+     *
+     * @return 最大深度
+     */
+    public int maxDepth() {
+        lock.lock();
+        try {
+            return maxDepth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 生产者因队列满而等待的次数
+     */
+    public long putWaitCount() {
+        return putWaits.sum();
+    }
+
+    /**
+     * 生产者因队列满而累计等待的时间(纳秒)
+     */
+    public long putWaitNanos() {
+        return putWaitNanos.sum();
+    }
+
+    /**
+     * 消费者因队列空而等待的次数
+     */
+    public long takeWaitCount() {
+        return takeWaits.sum();
+    }
+
+    /**
+     * 消费者因队列空而累计等待的时间(纳秒)
+     */
+    public long takeWaitNanos() {
+        return takeWaitNanos.sum();
+    }
+
+    /**
+     * 清零等待统计，最大深度重置为当前深度
+     */
+    public void resetMetrics() {
+        lock.lock();
+        try {
+            maxDepth = count;
+        } finally {
+            lock.unlock();
+        }
+        putWaits.reset();
+        putWaitNanos.reset();
+        takeWaits.reset();
+        takeWaitNanos.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BoundedBlockingQueue{depth=%d/%d, maxDepth=%d, putWaits=%d(%.1fms), takeWaits=%d(%.1fms)}",
+                size(), capacity(), maxDepth(), putWaitCount(), putWaitNanos() / 1e6, takeWaitCount(), takeWaitNanos() / 1e6);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final BoundedBlockingQueue<Integer> queue = new BoundedBlockingQueue<>(16);
+        final int total = 100000;
+
+        // 生产者比消费者快，队列会被填满，生产者被背压
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < total; i++) {
+                    queue.put(i);
+                }
+                queue.put(-1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        long sum = 0;
+        List<Integer> batch = new ArrayList<>();
+        outer:
+        while (true) {
+            batch.add(queue.take());
+            queue.drainTo(batch, 63);
+            for (int v : batch) {
+                if (v < 0) {
+                    break outer;
+                }
+                sum += v;
+            }
+            batch.clear();
+        }
+        producer.join();
+
+        System.out.println("sum=" + sum + ", " + queue);
+        System.out.println("poll(10ms)=" + queue.poll(10, TimeUnit.MILLISECONDS));
+    }
+}
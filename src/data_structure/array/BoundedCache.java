@@ -0,0 +1,392 @@
+package data_structure.array;
+
+import java.util.function.BiConsumer;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * 有容量上限的缓存：哈希索引 + 侵入式双向链表
+ * <p>
+ * 索引是开放寻址(线性探测)的哈希表，槽位里直接放链表节点，没有 HashMap.Entry 那一层对象；
+ * 删除时把后面同一探测序列上的节点往回挪(backward shift)，不留墓碑。
+ * 节点本身就是链表节点，命中后调整位置、淘汰、删除都是 O(1)。
+ * <p>
+ * 淘汰顺序由子类决定：LruCache 淘汰最久没有访问的，LfuCache 淘汰访问次数最少的。
+ * 总权重超过上限时淘汰，默认每个条目的权重是1，此时上限就是条目个数；权重本身就超过上限的条目不会放入缓存。
+ */
+public abstract class BoundedCache<K, V> {
+
+    private static final int MIN_TABLE_SIZE = 16;
+
+    private final long maxWeight;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private BiConsumer<? super K, ? super V> evictionListener;
+
+    // 开放寻址的索引，长度是2的幂，至少保留一半空槽
+    private Entry<K, V>[] table;
+    private int size;
+    private long weight;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * @param maxWeight 总权重上限
+     * @param weigher   计算条目权重，为null时每个条目的权重是1
+     */
+    @SuppressWarnings("unchecked")
+    protected BoundedCache(long maxWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("容量必须大于0: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        int initial = weigher == null ? tableSizeFor(2 * Math.min(maxWeight, 1 << 16)) : MIN_TABLE_SIZE;
+        table = (Entry<K, V>[]) new Entry[initial];
+    }
+
+    private static int tableSizeFor(long n) {
+        int cap = MIN_TABLE_SIZE;
+        while (cap < n && cap < (1 << 30)) {
+            cap <<= 1;
+        }
+        return cap;
+    }
+
+    /**
+     * 设置淘汰监听器，条目因超出容量被淘汰时回调；remove/clear 不回调
+     *
+     * @param listener 监听器
+     */
+    public void setEvictionListener(BiConsumer<? super K, ? super V> listener) {
+        this.evictionListener = listener;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 查找key所在的槽位
+     *
+     * @return 槽位；不存在时返回 -(探测停下的空槽位 + 1)，插入时可以直接使用
+     */
+    private int indexOf(Object key, int hash) {
+        Entry<K, V>[] tab = table;
+        int mask = tab.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            Entry<K, V> e = tab[i];
+            if (e == null)
+                return -(i + 1);
+            if (e.hash == hash && (e.key == key || e.key.equals(key)))
+                return i;
+        }
+    }
+
+    /**
+     * 查找条目，不算一次访问，也不计入命中统计
+     *
+     * @param key 键
+     * @return 条目，不存在时返回null
+     */
+    protected Entry<K, V> getEntry(Object key) {
+        int i = indexOf(key, hash(key));
+        return i < 0 ? null : table[i];
+    }
+
+    /**
+     * 读取缓存，命中时按淘汰策略记录这次访问
+     *
+     * @param key 键
+     * @return 值，未命中时返回null
+     */
+    public V get(Object key) {
+        int i = indexOf(key, hash(key));
+        if (i < 0) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        Entry<K, V> e = table[i];
+        onAccess(e);
+        return e.value;
+    }
+
+    /**
+     * 是否包含key，不算一次访问，也不计入命中统计
+     *
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean containsKey(Object key) {
+        return indexOf(key, hash(key)) >= 0;
+    }
+
+    /**
+     * 放入缓存，总权重超过上限时按淘汰策略淘汰条目
+     * <p>
+     * 单个条目的权重就超过上限时不放入缓存，也不动其他条目，视为放入后立即被淘汰：
+     * 计入淘汰次数并回调淘汰监听器；key原来的条目被删除，因为它的值已经被替换了。
+     *
+     * @param key   键
+     * @param value 值
+     * @return 原来的值，不存在时返回null
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int w = weigher == null ? 1 : weigher.applyAsInt(key, value);
+        if (w < 0) {
+            throw new IllegalArgumentException("权重不能为负数: " + w);
+        }
+        if (w > maxWeight) {
+            V old = remove(key);
+            evictionCount++;
+            if (evictionListener != null) {
+                evictionListener.accept(key, value);
+            }
+            return old;
+        }
+        int hash = hash(key);
+        int i = indexOf(key, hash);
+        V old = null;
+        if (i >= 0) {
+            Entry<K, V> e = table[i];
+            old = e.value;
+            e.value = value;
+            weight += w - e.weight;
+            e.weight = w;
+            onAccess(e);
+        } else {
+            Entry<K, V> e = newEntry(key, value, hash, w);
+            if ((size + 1) * 2 > table.length) {
+                resize(table.length * 2);
+                insertIndex(e);
+            } else {
+                table[-(i + 1)] = e;
+            }
+            size++;
+            weight += w;
+            onInsert(e);
+        }
+        evictIfNeeded();
+        return old;
+    }
+
+    /**
+     * 删除条目，不回调淘汰监听器
+     *
+     * @param key 键
+     * @return 被删除的值，不存在时返回null
+     */
+    public V remove(Object key) {
+        int i = indexOf(key, hash(key));
+        if (i < 0) {
+            return null;
+        }
+        Entry<K, V> e = table[i];
+        removeIndex(i);
+        onRemove(e);
+        size--;
+        weight -= e.weight;
+        return e.value;
+    }
+
+    private void evictIfNeeded() {
+        while (weight > maxWeight) {
+            Entry<K, V> victim = victim();
+            if (victim == null) {
+                return;
+            }
+            removeIndex(indexOf(victim.key, victim.hash));
+            onRemove(victim);
+            size--;
+            weight -= victim.weight;
+            evictionCount++;
+            if (evictionListener != null) {
+                evictionListener.accept(victim.key, victim.value);
+            }
+        }
+    }
+
+    private void insertIndex(Entry<K, V> e) {
+        Entry<K, V>[] tab = table;
+        int mask = tab.length - 1;
+        int i = e.hash & mask;
+        while (tab[i] != null) {
+            i = (i + 1) & mask;
+        }
+        tab[i] = e;
+    }
+
+    /**
+     * 清空槽位i，并把后面探测序列上的节点往回挪，保证查找不会在空槽处提前结束
+     */
+    private void removeIndex(int i) {
+        Entry<K, V>[] tab = table;
+        int mask = tab.length - 1;
+        tab[i] = null;
+        for (int j = (i + 1) & mask; tab[j] != null; j = (j + 1) & mask) {
+            int home = tab[j].hash & mask;
+            // home不在(i, j]这个环形区间内时，节点可以挪到空出来的i
+            boolean stay = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stay) {
+                tab[i] = tab[j];
+                tab[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int newLength) {
+        Entry<K, V>[] old = table;
+        table = (Entry<K, V>[]) new Entry[newLength];
+        for (Entry<K, V> e : old) {
+            if (e != null) {
+                insertIndex(e);
+            }
+        }
+    }
+
+    /**
+     * 清空缓存，不回调淘汰监听器，统计数据保留
+     */
+    @SuppressWarnings("unchecked")
+    public void clear() {
+        table = (Entry<K, V>[]) new Entry[table.length];
+        size = 0;
+        weight = 0;
+        onClear();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 当前总权重
+     *
+     * @return 总权重
+     */
+    public long weight() {
+        return weight;
+    }
+
+    public long maxWeight() {
+        return maxWeight;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 命中率，没有访问过时为0
+     *
+     * @return 命中率
+     */
+    public double hitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * 新建节点，子类需要在节点上附加数据时覆盖
+     */
+    protected Entry<K, V> newEntry(K key, V value, int hash, int weight) {
+        return new Entry<>(key, value, hash, weight);
+    }
+
+    /**
+     * 新条目加入缓存后挂到淘汰顺序中
+     */
+    protected abstract void onInsert(Entry<K, V> e);
+
+    /**
+     * 条目被读取或覆盖
+     */
+    protected abstract void onAccess(Entry<K, V> e);
+
+    /**
+     * 条目被删除或淘汰，从淘汰顺序中摘下
+     */
+    protected abstract void onRemove(Entry<K, V> e);
+
+    /**
+     * 缓存被清空
+     */
+    protected abstract void onClear();
+
+    /**
+     * 下一个要淘汰的条目
+     *
+     * @return 要淘汰的条目，缓存为空时返回null
+     */
+    protected abstract Entry<K, V> victim();
+
+    @Override
+    public String toString() {
+        return String.format("%s{size=%d, weight=%d/%d, hit=%d, miss=%d, eviction=%d}",
+                getClass().getSimpleName(), size, weight, maxWeight, hitCount, missCount, evictionCount);
+    }
+
+    /**
+     * 缓存条目，同时也是淘汰顺序链表的节点
+     */
+    protected static class Entry<K, V> {
+        final K key;
+        V value;
+        final int hash;
+        int weight;
+        Entry<K, V> prev;
+        Entry<K, V> next;
+
+        protected Entry(K key, V value, int hash, int weight) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+            this.weight = weight;
+        }
+
+        /**
+         * 从所在的链表中摘下
+         */
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+
+        /**
+         * 插入到node之后
+         */
+        void linkAfter(Entry<K, V> node) {
+            prev = node;
+            next = node.next;
+            node.next.prev = this;
+            node.next = this;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package data_structure.array;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁并发栈(Treiber 栈 + 消除回退)
+ * <p>
+ * 栈顶指针用 CAS 更新。CAS 失败说明有竞争，此时不立即重试，而是到消除数组里随机挑一个槽位：
+ * push 把自己的结点放进槽位等待片刻，pop 从槽位里直接取走结点。
+ * 一对 push/pop 在消除数组里"相互抵消"，完全不碰栈顶，竞争越激烈，抵消的机会越多。
+ */
+public class ConcurrentStack<T> {
+
+    private static final int DEFAULT_SPINS = 64;
+
+    // 栈顶
+    private final AtomicReference<Node<T>> top = new AtomicReference<>();
+    // 消除数组，槽位里是等待被 pop 取走的结点
+    private final AtomicReferenceArray<Node<T>> slots;
+    // push 在槽位里等待的自旋次数
+    private final int spins;
+
+    private final LongAdder pushCount = new LongAdder();
+    private final LongAdder popCount = new LongAdder();
+    private final LongAdder casFailureCount = new LongAdder();
+    private final LongAdder eliminationCount = new LongAdder();
+
+    public ConcurrentStack() {
+        this(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() / 2, 32)), DEFAULT_SPINS);
+    }
+
+    /**
+     * @param eliminationSize 消除数组的大小
+     * @param spins           push 在槽位里等待的自旋次数
+     */
+    public ConcurrentStack(int eliminationSize, int spins) {
+        if (eliminationSize <= 0 || spins < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.slots = new AtomicReferenceArray<>(eliminationSize);
+        this.spins = spins;
+    }
+
+    /**
+     * 将val添加到栈中
+     *
+     * @param val 值
+     */
+    public void push(T val) {
+        Node<T> node = new Node<>(val);
+        while (true) {
+            Node<T> t = top.get();
+            node.next = t;
+            if (top.compareAndSet(t, node)) {
+                pushCount.increment();
+                return;
+            }
+            casFailureCount.increment();
+            if (eliminatePush(node)) {
+                pushCount.increment();
+                eliminationCount.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 返回“栈顶元素值”，并删除“栈顶元素”
+     *
+     * @return 栈顶元素值，栈为空时返回null
+     */
+    public T pop() {
+        while (true) {
+            Node<T> t = top.get();
+            if (t == null) {
+                return null;
+            }
+            if (top.compareAndSet(t, t.next)) {
+                popCount.increment();
+                return t.value;
+            }
+            casFailureCount.increment();
+            Node<T> node = eliminatePop();
+            if (node != null) {
+                popCount.increment();
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * 返回“栈顶元素值”
+     *
+     * @return 栈顶元素值，栈为空时返回null
+     */
+    public T peek() {
+        Node<T> t = top.get();
+        return t == null ? null : t.value;
+    }
+
+    /**
+     * 返回“栈”是否为空
+     *
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return top.get() == null;
+    }
+
+    /**
+     * 把结点放进消除数组，等待一个 pop 取走
+     *
+     * @return 是否已被 pop 取走
+     */
+    private boolean eliminatePush(Node<T> node) {
+        int index = ThreadLocalRandom.current().nextInt(slots.length());
+        if (!slots.compareAndSet(index, null, node)) {
+            return false;
+        }
+        for (int i = 0; i < spins; i++) {
+            if (slots.get(index) != node) {
+                return true;
+            }
+        }
+        // 超时撤回；撤回失败说明恰好被取走了
+        return !slots.compareAndSet(index, node, null);
+    }
+
+    /**
+     * 从消除数组中取走一个 push 留下的结点
+     *
+     * @return 取到的结点，没有时返回null
+     */
+    private Node<T> eliminatePop() {
+        int index = ThreadLocalRandom.current().nextInt(slots.length());
+        for (int i = 0; i < spins; i++) {
+            Node<T> node = slots.get(index);
+            if (node != null && slots.compareAndSet(index, node, null)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 成功的 push 次数(含被消除的)
+     */
+    public long getPushCount() {
+        return pushCount.sum();
+    }
+
+    /**
+     * 成功的 pop 次数(含被消除的)，不含栈为空时返回null的调用
+     */
+    public long getPopCount() {
+        return popCount.sum();
+    }
+
+    /**
+     * 栈顶 CAS 失败的次数，反映竞争的激烈程度
+     */
+    public long getCasFailureCount() {
+        return casFailureCount.sum();
+    }
+
+    /**
+     * 在消除数组中相互抵消的 push/pop 对数
+     */
+    public long getEliminationCount() {
+        return eliminationCount.sum();
+    }
+
+    /**
+     * 清零全部计数器
+     */
+    public void resetCounters() {
+        pushCount.reset();
+        popCount.reset();
+        casFailureCount.reset();
+        eliminationCount.reset();
+    }
+
+    private static final class Node<T> {
+        final T value;
+        Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConcurrentStack[push=%d, pop=%d, casFailure=%d, elimination=%d]",
+                getPushCount(), getPopCount(), getCasFailureCount(), getEliminationCount());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final ConcurrentStack<Integer> stack = new ConcurrentStack<>();
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final int perThread = 200000;
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    stack.push(i);
+                    while (stack.pop() == null) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        for (Thread t : workers) {
+            t.start();
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+
+        System.out.println("isEmpty: " + stack.isEmpty());
+        System.out.println(stack);
+    }
+}
@@ -0,0 +1,304 @@
+package data_structure.array;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基于数组的d叉堆(优先队列)，堆顶是比较器意义下最小的元素
+ * <p>
+ * 下标为i的结点的孩子是 d*i+1 .. d*i+d，父结点是 (i-1)/d。d越大树越矮：
+ * 上浮(offer)比较次数少，下沉(poll)每层要在d个孩子里挑最小的，但这d个孩子在数组里是连续的，缓存友好。
+ * 默认d=4。
+ * <p>
+ * 构造时打开 indexed 后会维护元素到下标的映射，支持 contains/remove/update(元素优先级变化后重新调整位置，
+ * 即 decrease-key)，代价是每次移动元素都要更新映射，且元素不能重复。
+ */
+public class DaryHeap<T> {
+
+    private static final int DEFAULT_ARITY = 4;
+    private static final int DEFAULT_SIZE = 16;
+
+    private final int arity;
+    private final Comparator<? super T> comparator;
+    // 元素 -> 在heap中的下标，未打开索引时为null
+    private final Map<T, Integer> index;
+
+    private T[] heap;
+    private int size;
+
+    /**
+     * 按自然顺序排列的4叉堆
+     */
+    public DaryHeap() {
+        this(DEFAULT_ARITY, null, false);
+    }
+
+    public DaryHeap(Comparator<? super T> comparator) {
+        this(DEFAULT_ARITY, comparator, false);
+    }
+
+    /**
+     * @param arity      每个结点的孩子个数，至少为2
+     * @param comparator 比较器，为null时按自然顺序
+     * @param indexed    是否维护元素到下标的映射，以支持 contains/remove/update
+     */
+    @SuppressWarnings("unchecked")
+    public DaryHeap(int arity, Comparator<? super T> comparator, boolean indexed) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity: " + arity);
+        }
+        this.arity = arity;
+        this.comparator = comparator;
+        this.index = indexed ? new HashMap<>() : null;
+        this.heap = (T[]) new Object[DEFAULT_SIZE];
+    }
+
+    /**
+     * 由数组建堆，自底向上下沉每个非叶结点，O(n)
+     *
+     * @param elements   元素，会被复制，原数组不变
+     * @param arity      每个结点的孩子个数
+     * @param comparator 比较器，为null时按自然顺序
+     * @param indexed    是否维护元素到下标的映射
+     * @return 堆
+     */
+    public static <T> DaryHeap<T> heapify(T[] elements, int arity, Comparator<? super T> comparator, boolean indexed) {
+        DaryHeap<T> heap = new DaryHeap<>(arity, comparator, indexed);
+        heap.heap = Arrays.copyOf(elements, Math.max(elements.length, DEFAULT_SIZE));
+        heap.size = elements.length;
+        for (int i = 0; i < heap.size; i++) {
+            if (heap.heap[i] == null) {
+                throw new NullPointerException("第" + i + "个元素为null");
+            }
+            heap.indexPut(heap.heap[i], i);
+        }
+        for (int i = (heap.size - 2) / arity; i >= 0 && heap.size > 1; i--) {
+            heap.siftDown(i, heap.heap[i]);
+        }
+        return heap;
+    }
+
+    public static <T> DaryHeap<T> heapify(T[] elements, Comparator<? super T> comparator) {
+        return heapify(elements, DEFAULT_ARITY, comparator, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(T a, T b) {
+        return comparator == null ? ((Comparable<? super T>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    private void indexPut(T element, int i) {
+        if (index != null && index.put(element, i) != null) {
+            throw new IllegalArgumentException("索引模式下元素不能重复: " + element);
+        }
+    }
+
+    /**
+     * 把element放到下标i，并同步索引
+     */
+    private void place(int i, T element) {
+        heap[i] = element;
+        if (index != null) {
+            index.put(element, i);
+        }
+    }
+
+    /**
+     * 插入元素
+     *
+     * @param element 元素
+     */
+    public void offer(T element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        if (index != null && index.containsKey(element)) {
+            throw new IllegalArgumentException("索引模式下元素不能重复: " + element);
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length << 1);
+        }
+        siftUp(size++, element);
+    }
+
+    /**
+     * 返回堆顶元素
+     *
+     * @return 堆顶元素，堆为空时返回null
+     */
+    public T peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * 移走堆顶元素
+     *
+     * @return 堆顶元素，堆为空时返回null
+     */
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    /**
+     * 是否包含元素，需要打开索引
+     *
+     * @param element 元素
+     * @return 是否包含
+     */
+    public boolean contains(T element) {
+        return index().containsKey(element);
+    }
+
+    /**
+     * 删除任意位置的元素，需要打开索引
+     *
+     * @param element 元素
+     * @return 元素存在并被删除时返回true
+     */
+    public boolean remove(T element) {
+        Integer i = index().get(element);
+        if (i == null) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * 元素的优先级变化后重新调整它的位置，变小时上浮(decrease-key)，变大时下沉，需要打开索引
+     *
+     * @param element 优先级已经变化的元素
+     * @return 元素存在时返回true
+     */
+    public boolean update(T element) {
+        Integer boxed = index().get(element);
+        if (boxed == null) {
+            return false;
+        }
+        int i = boxed;
+        if (i > 0 && compare(element, heap[(i - 1) / arity]) < 0) {
+            siftUp(i, element);
+        } else {
+            siftDown(i, element);
+        }
+        return true;
+    }
+
+    private Map<T, Integer> index() {
+        if (index == null) {
+            throw new UnsupportedOperationException("构造时没有打开索引");
+        }
+        return index;
+    }
+
+    /**
+     * 删除下标i的元素：用最后一个元素填补，再按需上浮或下沉
+     */
+    private void removeAt(int i) {
+        T removed = heap[i];
+        int last = --size;
+        T moved = heap[last];
+        heap[last] = null;
+        if (index != null) {
+            index.remove(removed);
+        }
+        if (i == last) {
+            return;
+        }
+        siftDown(i, moved);
+        if (heap[i] == moved) {
+            siftUp(i, moved);
+        }
+    }
+
+    /**
+     * 把element从下标i上浮到合适的位置。沿途的父结点下移，最后只写一次element
+     */
+    private void siftUp(int i, T element) {
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            T p = heap[parent];
+            if (compare(element, p) >= 0) {
+                break;
+            }
+            place(i, p);
+            i = parent;
+        }
+        place(i, element);
+    }
+
+    /**
+     * 把element从下标i下沉到合适的位置：每层在连续的d个孩子里找最小的
+     */
+    private void siftDown(int i, T element) {
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size || first < 0) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int min = first;
+            for (int c = first + 1; c < last; c++) {
+                if (compare(heap[c], heap[min]) < 0) {
+                    min = c;
+                }
+            }
+            if (compare(heap[min], element) >= 0) {
+                break;
+            }
+            place(i, heap[min]);
+            i = min;
+        }
+        place(i, element);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        if (index != null) {
+            index.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(heap, size));
+    }
+
+    public static void main(String[] args) {
+        DaryHeap<Integer> heap = DaryHeap.heapify(new Integer[]{5, 3, 9, 1, 7, 2, 8}, null);
+        heap.offer(0);
+        System.out.println("堆: " + heap + ", 堆顶: " + heap.peek());
+        StringBuilder sb = new StringBuilder();
+        while (!heap.isEmpty()) {
+            sb.append(heap.poll()).append(' ');
+        }
+        System.out.println("依次出堆: " + sb);
+
+        // 索引模式：任务的优先级变化后调用 update
+        final int[] priority = {50, 40, 30, 20};
+        DaryHeap<Integer> tasks = new DaryHeap<>(2, (a, b) -> Integer.compare(priority[a], priority[b]), true);
+        for (int task = 0; task < priority.length; task++) {
+            tasks.offer(task);
+        }
+        priority[0] = 10;
+        tasks.update(0);
+        tasks.remove(3);
+        System.out.println("decrease-key 之后的堆顶: " + tasks.peek() + ", contains(3)=" + tasks.contains(3));
+    }
+}
@@ -1,14 +1,30 @@
 package data_structure.array;
 
+import data_structure.metrics.Histogram;
+import data_structure.metrics.Metrics;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * 双向链表
  */
-public class DoubleLink<T> {
+public class DoubleLink<T> implements Iterable<T> {
 
     // 表头
     private Node<T> head;
     // 节点个数
     private int count;
+    // 结构修改次数，迭代器据此快速失败
+    private int modCount;
+    // 按位置查找节点时走过的节点数，默认不记录
+    private Histogram walks = Histogram.NOOP;
 
     public static void main(String[] args) {
         // 创建双向链表
@@ -31,6 +47,20 @@ public class DoubleLink<T> {
 
         // 打印出全部的节点
         System.out.println(dlink.toString());
+
+        // 用游标在遍历的同时修改
+        ListIterator<Integer> it = dlink.listIterator();
+        while (it.hasNext()) {
+            int v = it.next();
+            if (v == 20) {
+                it.remove();
+            } else {
+                it.set(v + 1);
+                it.add(v + 2);
+            }
+        }
+        System.out.println(dlink.toString());
+        System.out.println("sum=" + dlink.stream().mapToInt(Integer::intValue).sum());
     }
 
 
@@ -44,18 +74,40 @@ public class DoubleLink<T> {
     }
 
     /**
-     * 获取第index位置的节点
+     * 接入统计指标：按位置查找节点时走过的节点数(dlink.walk)
+     * <p>
+     * 走过的节点数持续接近 size/2 说明调用方在用下标遍历链表，应改用迭代器
+     *
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
+     */
+    public void setMetrics(Metrics metrics) {
+        setMetrics(metrics, "dlink");
+    }
+
+    /**
+     * 接入统计指标
+     *
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
+     * @param prefix  指标名字的前缀
+     */
+    public void setMetrics(Metrics metrics, String prefix) {
+        walks = metrics.histogram(prefix + ".walk");
+    }
+
+    /**
+     * 获取第index位置的节点，index等于节点个数时返回表头
      *
      * @param index 位置
      * @return 第index位置的节点
      */
     private Node<T> getNode(int index) {
         if (index < 0 || index > count) {
-            throw new IndexOutOfBoundsException();
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
         }
 
 
         if (index <= count / 2) {// 正向查找
+            walks.record(index);
             Node<T> node = head.next;
             for (int i = 0; i < index; i++) {
                 node = node.next;
@@ -64,14 +116,28 @@ public class DoubleLink<T> {
         }
 
         // 反向查找
-        Node<T> node = head.prev;
-        int rindex = count - index - 1;
+        Node<T> node = head;
+        int rindex = count - index;
+        walks.record(rindex);
         for (int j = 0; j < rindex; j++) {
             node = node.prev;
         }
         return node;
     }
 
+    /**
+     * 获取第index位置的存有数据的节点
+     *
+     * @param index 位置
+     * @return 第index位置的节点
+     */
+    private Node<T> getElementNode(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return getNode(index);
+    }
+
     /**
      * 获取第index位置的节点的值
      *
@@ -79,7 +145,7 @@ public class DoubleLink<T> {
      * @return 节点的值
      */
     public T get(int index) {
-        return getNode(index).value;
+        return getElementNode(index).value;
     }
 
     /**
@@ -88,7 +154,7 @@ public class DoubleLink<T> {
      * @return 节点的值
      */
     public T getFirst() {
-        return getNode(0).value;
+        return getElementNode(0).value;
     }
 
     /**
@@ -97,7 +163,7 @@ public class DoubleLink<T> {
      * @return 节点的值
      */
     public T getLast() {
-        return getNode(count - 1).value;
+        return getElementNode(count - 1).value;
     }
 
     /**
@@ -107,9 +173,7 @@ public class DoubleLink<T> {
      * @param t     节点的值
      */
     public void insert(int index, T t) {
-        Node<T> node = getNode(index);
-        new Node<>(t, node.prev, node);
-        count++;
+        linkBefore(t, getNode(index));
     }
 
 
@@ -128,8 +192,7 @@ public class DoubleLink<T> {
      * @param t 节点值
      */
     public void appendLast(T t) {
-        new Node(t, head.prev, head);
-        count++;
+        linkBefore(t, head);
     }
 
     /**
@@ -138,11 +201,34 @@ public class DoubleLink<T> {
      * @param index 位置
      */
     public void del(int index) {
-        Node<T> node = getNode(index);
-        node.prev.next = node.next;
+        unlink(getElementNode(index));
+    }
+
+    /**
+     * 在node之前插入新节点
+     *
+     * @param t    节点值
+     * @param node 插入位置，是表头时相当于追加到末尾
+     */
+    private void linkBefore(T t, Node<T> node) {
+        new Node<>(t, node.prev, node);
+        count++;
+        modCount++;
+    }
 
-        node = null;
+    /**
+     * 从链表中摘下节点
+     *
+     * @param node 要删除的节点
+     */
+    private void unlink(Node<T> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        node.value = null;
         count--;
+        modCount++;
     }
 
     /**
@@ -182,18 +268,18 @@ public class DoubleLink<T> {
     /**
      * 双向链表“节点”对应的结构体
      */
-    private class Node<T> {
-        public Node prev;
-        public Node next;
+    private static class Node<T> {
+        public Node<T> prev;
+        public Node<T> next;
         public T value;
 
-        public Node(T value, Node prev, Node next) {
+        public Node(T value, Node<T> prev, Node<T> next) {
             setPrev(prev);
             setNext(next);
             this.value = value;
         }
 
-        public void setPrev(Node prev) {
+        public void setPrev(Node<T> prev) {
             this.prev = prev;
 
             if (prev != null) {
@@ -202,7 +288,7 @@ public class DoubleLink<T> {
 
         }
 
-        public void setNext(Node next) {
+        public void setNext(Node<T> next) {
             this.next = next;
             if (next != null) {
                 next.prev = this;
@@ -210,11 +296,148 @@ public class DoubleLink<T> {
         }
     }
 
+    @Override
+    public Iterator<T> iterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * 返回从表头开始的双向迭代器
+     *
+     * @return 双向迭代器
+     */
+    public ListIterator<T> listIterator() {
+        return new ListItr(0);
+    }
+
+    /**
+     * 返回从第index位置开始的双向迭代器，定位需要遍历一次，之后的每一步都是O(1)
+     *
+     * @param index 第一次调用next()返回的位置
+     * @return 双向迭代器
+     */
+    public ListIterator<T> listIterator(int index) {
+        return new ListItr(index);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), count, Spliterator.ORDERED);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * 记住当前节点的游标，在游标处插入、删除、修改都是O(1)
+     */
+    private class ListItr implements ListIterator<T> {
+        // 上一次next()/previous()返回的节点
+        private Node<T> lastReturned;
+        // 下一次next()返回的节点，到达末尾时为表头
+        private Node<T> next;
+        private int nextIndex;
+        private int expectedModCount = modCount;
+
+        ListItr(int index) {
+            next = getNode(index);
+            nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < count;
+        }
+
+        @Override
+        public T next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.next;
+            nextIndex++;
+            return lastReturned.value;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public T previous() {
+            checkForComodification();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            next = next.prev;
+            lastReturned = next;
+            nextIndex--;
+            return lastReturned.value;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            Node<T> lastNext = lastReturned.next;
+            // 刚调用过previous()时，被删除的就是next
+            if (next == lastReturned) {
+                next = lastNext;
+            } else {
+                nextIndex--;
+            }
+            unlink(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(T t) {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            lastReturned.value = t;
+        }
+
+        @Override
+        public void add(T t) {
+            checkForComodification();
+            lastReturned = null;
+            linkBefore(t, next);
+            nextIndex++;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            sb.append("dlink(" + i + ")=" + get(i)).append("\n");
+        int i = 0;
+        for (T t : this) {
+            sb.append("dlink(").append(i++).append(")=").append(t).append("\n");
         }
         return sb.toString();
     }
@@ -0,0 +1,281 @@
+package data_structure.array;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * 以long为优先级、int为编号的索引d叉堆(最小堆)，适合 Dijkstra、定时器等需要 decrease-key 的场景
+ * <p>
+ * 编号的取值范围是[0, capacity)，全部数据放在构造时分配好的三个基本类型数组里：
+ * <ul>
+ * <li>heap[i]：堆中第i个位置的编号</li>
+ * <li>pos[id]：编号id在heap中的位置，不在堆中时为-1</li>
+ * <li>priority[id]：编号id的优先级</li>
+ * </ul>
+ * 之后的任何操作都不再分配内存，也没有装箱。
+ */
+public class IndexedLongHeap {
+
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private final int[] heap;
+    private final int[] pos;
+    private final long[] priority;
+    private int size;
+
+    public IndexedLongHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * @param capacity 编号的个数，编号取值范围是[0, capacity)
+     * @param arity    每个结点的孩子个数，至少为2
+     */
+    public IndexedLongHeap(int capacity, int arity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity: " + arity);
+        }
+        this.arity = arity;
+        heap = new int[capacity];
+        pos = new int[capacity];
+        priority = new long[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public boolean contains(int id) {
+        return pos[id] >= 0;
+    }
+
+    /**
+     * 编号id的优先级
+     *
+     * @param id 编号
+     * @return 优先级
+     * @throws NoSuchElementException 编号不在堆中
+     */
+    public long priority(int id) {
+        checkContains(id);
+        return priority[id];
+    }
+
+    /**
+     * 插入编号
+     *
+     * @param id       编号
+     * @param priority 优先级
+     */
+    public void insert(int id, long priority) {
+        if (pos[id] >= 0) {
+            throw new IllegalArgumentException("编号已在堆中: " + id);
+        }
+        this.priority[id] = priority;
+        siftUp(size++, id);
+    }
+
+    /**
+     * 调整编号的优先级，变小时上浮(decrease-key)，变大时下沉
+     *
+     * @param id       编号
+     * @param priority 新的优先级
+     */
+    public void update(int id, long priority) {
+        checkContains(id);
+        long old = this.priority[id];
+        this.priority[id] = priority;
+        if (priority < old) {
+            siftUp(pos[id], id);
+        } else {
+            siftDown(pos[id], id);
+        }
+    }
+
+    /**
+     * 编号不在堆中时插入，在堆中且新优先级更小时调小
+     *
+     * @param id       编号
+     * @param priority 优先级
+     * @return 插入或调小了时返回true
+     */
+    public boolean insertOrDecrease(int id, long priority) {
+        if (pos[id] < 0) {
+            insert(id, priority);
+            return true;
+        }
+        if (priority < this.priority[id]) {
+            this.priority[id] = priority;
+            siftUp(pos[id], id);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 堆顶的编号
+     *
+     * @return 优先级最小的编号
+     */
+    public int peekId() {
+        checkNotEmpty();
+        return heap[0];
+    }
+
+    /**
+     * 堆顶的优先级
+     *
+     * @return 最小的优先级
+     */
+    public long peekPriority() {
+        checkNotEmpty();
+        return priority[heap[0]];
+    }
+
+    /**
+     * 移走堆顶
+     *
+     * @return 优先级最小的编号
+     */
+    public int pollId() {
+        checkNotEmpty();
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    /**
+     * 删除编号
+     *
+     * @param id 编号
+     * @return 编号在堆中并被删除时返回true
+     */
+    public boolean remove(int id) {
+        int i = pos[id];
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    private void removeAt(int i) {
+        int removed = heap[i];
+        int last = --size;
+        int moved = heap[last];
+        pos[removed] = -1;
+        if (i == last) {
+            return;
+        }
+        siftDown(i, moved);
+        if (heap[i] == moved) {
+            siftUp(i, moved);
+        }
+    }
+
+    private void siftUp(int i, int id) {
+        long p = priority[id];
+        while (i > 0) {
+            int parent = (i - 1) / arity;
+            int pid = heap[parent];
+            if (p >= priority[pid]) {
+                break;
+            }
+            heap[i] = pid;
+            pos[pid] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void siftDown(int i, int id) {
+        long p = priority[id];
+        while (true) {
+            int first = i * arity + 1;
+            if (first >= size || first < 0) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int min = first;
+            long minPriority = priority[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                long cp = priority[heap[c]];
+                if (cp < minPriority) {
+                    min = c;
+                    minPriority = cp;
+                }
+            }
+            if (minPriority >= p) {
+                break;
+            }
+            int cid = heap[min];
+            heap[i] = cid;
+            pos[cid] = i;
+            i = min;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void checkContains(int id) {
+        if (pos[id] < 0) {
+            throw new NoSuchElementException("编号不在堆中: " + id);
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("堆为空!");
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return pos.length;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    public static void main(String[] args) {
+        // Dijkstra 最短路径，图用邻接矩阵表示，0 表示不相连
+        int[][] graph = {
+                {0, 7, 9, 0, 0, 14},
+                {7, 0, 10, 15, 0, 0},
+                {9, 10, 0, 11, 0, 2},
+                {0, 15, 11, 0, 6, 0},
+                {0, 0, 0, 6, 0, 9},
+                {14, 0, 2, 0, 9, 0},
+        };
+        int n = graph.length;
+        long[] dist = new long[n];
+        Arrays.fill(dist, Long.MAX_VALUE);
+        dist[0] = 0;
+
+        IndexedLongHeap heap = new IndexedLongHeap(n);
+        heap.insert(0, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.pollId();
+            for (int v = 0; v < n; v++) {
+                if (graph[u][v] > 0 && dist[u] + graph[u][v] < dist[v]) {
+                    dist[v] = dist[u] + graph[u][v];
+                    heap.insertOrDecrease(v, dist[v]);
+                }
+            }
+        }
+        System.out.println("从 0 出发的最短距离: " + Arrays.toString(dist));
+    }
+}
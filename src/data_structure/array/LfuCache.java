@@ -0,0 +1,152 @@
+package data_structure.array;
+
+import java.util.function.ToIntBiFunction;
+
+/**
+ * 最不经常使用(LFU)淘汰的缓存，访问次数相同时淘汰最久没有访问的
+ * <p>
+ * 访问次数相同的条目放在同一个频率桶里，桶内是按访问时间排列的循环双向链表；
+ * 桶按访问次数从小到大串成另一个双向链表，只保留非空的桶。
+ * 命中时条目移到次数加一的桶(没有就在当前桶之后新建一个)，淘汰时取第一个桶里最久没有访问的条目，都是 O(1)。
+ */
+public class LfuCache<K, V> extends BoundedCache<K, V> {
+
+    // 桶链表的表头，访问次数为0，不存放条目
+    private final Bucket<K, V> buckets = new Bucket<>(0);
+
+    /**
+     * @param capacity 最多的条目个数
+     */
+    public LfuCache(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param maxWeight 总权重上限
+     * @param weigher   计算条目权重，为null时每个条目的权重是1
+     */
+    public LfuCache(long maxWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+        super(maxWeight, weigher);
+        buckets.prevBucket = buckets;
+        buckets.nextBucket = buckets;
+    }
+
+    @Override
+    protected Entry<K, V> newEntry(K key, V value, int hash, int weight) {
+        return new FreqEntry<>(key, value, hash, weight);
+    }
+
+    @Override
+    protected void onInsert(Entry<K, V> e) {
+        moveTo((FreqEntry<K, V>) e, buckets, 1);
+    }
+
+    @Override
+    protected void onAccess(Entry<K, V> e) {
+        FreqEntry<K, V> entry = (FreqEntry<K, V>) e;
+        Bucket<K, V> bucket = entry.bucket;
+        // 溢出时停在最大次数上
+        int frequency = bucket.frequency == Integer.MAX_VALUE ? bucket.frequency : bucket.frequency + 1;
+        entry.unlink();
+        moveTo(entry, bucket, frequency);
+        removeIfEmpty(bucket);
+    }
+
+    @Override
+    protected void onRemove(Entry<K, V> e) {
+        FreqEntry<K, V> entry = (FreqEntry<K, V>) e;
+        entry.unlink();
+        removeIfEmpty(entry.bucket);
+        entry.bucket = null;
+    }
+
+    @Override
+    protected void onClear() {
+        buckets.prevBucket = buckets;
+        buckets.nextBucket = buckets;
+    }
+
+    @Override
+    protected Entry<K, V> victim() {
+        Bucket<K, V> first = buckets.nextBucket;
+        return first == buckets ? null : first.prev;
+    }
+
+    /**
+     * 把条目放到after之后访问次数为frequency的桶里，没有这个桶就新建
+     */
+    private void moveTo(FreqEntry<K, V> entry, Bucket<K, V> after, int frequency) {
+        Bucket<K, V> target = after.nextBucket;
+        if (target == buckets || target.frequency != frequency) {
+            if (after.frequency == frequency) {
+                target = after;
+            } else {
+                target = new Bucket<>(frequency);
+                target.prevBucket = after;
+                target.nextBucket = after.nextBucket;
+                after.nextBucket.prevBucket = target;
+                after.nextBucket = target;
+            }
+        }
+        entry.linkAfter(target);
+        entry.bucket = target;
+    }
+
+    private void removeIfEmpty(Bucket<K, V> bucket) {
+        if (bucket != buckets && bucket.next == bucket) {
+            bucket.prevBucket.nextBucket = bucket.nextBucket;
+            bucket.nextBucket.prevBucket = bucket.prevBucket;
+        }
+    }
+
+    /**
+     * 条目的访问次数
+     *
+     * @param key 键
+     * @return 访问次数(包括放入的那一次)，不存在时返回0
+     */
+    public int frequency(K key) {
+        Entry<K, V> e = getEntry(key);
+        return e == null ? 0 : ((FreqEntry<K, V>) e).bucket.frequency;
+    }
+
+    private static final class FreqEntry<K, V> extends Entry<K, V> {
+        Bucket<K, V> bucket;
+
+        FreqEntry(K key, V value, int hash, int weight) {
+            super(key, value, hash, weight);
+        }
+    }
+
+    /**
+     * 频率桶，本身是桶内条目链表的表头
+     */
+    private static final class Bucket<K, V> extends Entry<K, V> {
+        final int frequency;
+        Bucket<K, V> prevBucket;
+        Bucket<K, V> nextBucket;
+
+        Bucket(int frequency) {
+            super(null, null, 0, 0);
+            this.frequency = frequency;
+            prev = this;
+            next = this;
+        }
+    }
+
+    public static void main(String[] args) {
+        LfuCache<String, Integer> cache = new LfuCache<>(3);
+        cache.setEvictionListener((k, v) -> System.out.println("淘汰: " + k + "=" + v));
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.get("a");
+        cache.get("c");
+        cache.put("d", 4); // b 只访问过一次，被淘汰
+        cache.put("e", 5); // d 与 e 都只有一次，d 更久没有访问
+        System.out.printf("frequency(a)=%d, frequency(c)=%d, get(b)=%s\n", cache.frequency("a"), cache.frequency("c"), cache.get("b"));
+        System.out.println(cache);
+    }
+}
@@ -0,0 +1,171 @@
+package data_structure.array;
+
+import java.util.Arrays;
+
+/**
+ * long 特化的栈
+ * <p>
+ * 元素直接存放在 long[] 中，push/pop/peek 不会装箱，也不会分配对象；
+ * 只有容量不足时才会按两倍扩容。
+ */
+public class LongStack {
+
+    private static final int DEFAULT_SIZE = 32;
+    private long[] array;
+    private int count;
+
+    public LongStack() {
+        this(DEFAULT_SIZE);
+    }
+
+    public LongStack(int size) {
+        array = new long[Math.max(1, size)];
+        count = 0;
+    }
+
+    /**
+     * 将val添加到栈中
+     *
+     * @param val 值
+     */
+    public void push(long val) {
+        if (count == array.length) {
+            grow(count + 1);
+        }
+        array[count++] = val;
+    }
+
+    /**
+     * 将src[off, off+len)依次压入栈中，src[off+len-1]成为栈顶
+     *
+     * @param src 源数组
+     * @param off 起始位置
+     * @param len 个数
+     */
+    public void pushAll(long[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (count + len > array.length) {
+            grow(count + len);
+        }
+        System.arraycopy(src, off, array, count, len);
+        count += len;
+    }
+
+    /**
+     * 返回“栈顶元素值”
+     *
+     * @return 栈顶元素值
+     */
+    public long peek() {
+        if (count == 0) {
+            throw new RuntimeException("栈为空!");
+        }
+        return array[count - 1];
+    }
+
+    /**
+     * 返回“栈顶元素值”，并删除“栈顶元素”
+     *
+     * @return 栈顶元素值
+     */
+    public long pop() {
+        if (count == 0) {
+            throw new RuntimeException("栈为空!");
+        }
+        return array[--count];
+    }
+
+    /**
+     * 按出栈顺序弹出最多dst.length个元素到dst中，dst[0]是原来的栈顶
+     *
+     * @param dst 目标数组
+     * @return 实际弹出的个数
+     */
+    public int popInto(long[] dst) {
+        int n = Math.min(dst.length, count);
+        for (int i = 0; i < n; i++) {
+            dst[i] = array[--count];
+        }
+        return n;
+    }
+
+    /**
+     * 返回“栈”的大小
+     *
+     * @return 大小
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 返回“栈”是否为空
+     *
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 清空栈，保留已分配的数组
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * 扩容到不小于minCapacity，至少扩大为原来的两倍
+     *
+     * @param minCapacity 最小容量
+     */
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        int newCapacity = array.length << 1;
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+        array = Arrays.copyOf(array, newCapacity);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (isEmpty()) {
+            sb.append("stack is Empty");
+        } else {
+            sb.append(String.format("stack size: %d\n", size()));
+            int i = size() - 1;
+            while (i >= 0) {
+                sb.append(array[i]).append('\n');
+                i--;
+            }
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        LongStack stack = new LongStack();
+
+        // 将10, 20, 30 依次推入栈中
+        stack.pushAll(new long[]{10, 20, 30}, 0, 3);
+
+        // 将“栈顶元素”赋值给tmp，并删除“栈顶元素”
+        System.out.println(stack.pop());
+
+        // 只将“栈顶”赋值给tmp，不删除该元素.
+        System.out.println(stack.peek());
+
+        stack.push(40);
+
+        System.out.println(stack.toString());
+
+        long[] buf = new long[2];
+        int n = stack.popInto(buf);
+        System.out.printf("popInto: %d %s\n", n, Arrays.toString(buf));
+    }
+}
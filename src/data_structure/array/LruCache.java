@@ -0,0 +1,81 @@
+package data_structure.array;
+
+import java.util.function.ToIntBiFunction;
+
+/**
+ * 最近最少使用(LRU)淘汰的缓存
+ * <p>
+ * 条目按访问时间串成一个带表头的循环双向链表：表头之后是最近访问的，表头之前是最久没有访问的。
+ * 命中时把条目移到表头之后，淘汰时从表头之前取，都是 O(1)。
+ */
+public class LruCache<K, V> extends BoundedCache<K, V> {
+
+    // 表头，不存放数据
+    private final Entry<K, V> head = new Entry<>(null, null, 0, 0);
+
+    /**
+     * @param capacity 最多的条目个数
+     */
+    public LruCache(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param maxWeight 总权重上限
+     * @param weigher   计算条目权重，为null时每个条目的权重是1
+     */
+    public LruCache(long maxWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+        super(maxWeight, weigher);
+        head.prev = head;
+        head.next = head;
+    }
+
+    @Override
+    protected void onInsert(Entry<K, V> e) {
+        e.linkAfter(head);
+    }
+
+    @Override
+    protected void onAccess(Entry<K, V> e) {
+        if (head.next != e) {
+            e.unlink();
+            e.linkAfter(head);
+        }
+    }
+
+    @Override
+    protected void onRemove(Entry<K, V> e) {
+        e.unlink();
+    }
+
+    @Override
+    protected void onClear() {
+        head.prev = head;
+        head.next = head;
+    }
+
+    @Override
+    protected Entry<K, V> victim() {
+        return head.prev == head ? null : head.prev;
+    }
+
+    public static void main(String[] args) {
+        LruCache<String, Integer> cache = new LruCache<>(3);
+        cache.setEvictionListener((k, v) -> System.out.println("淘汰: " + k + "=" + v));
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a"); // a 变成最近访问的，b 最久没有访问
+        cache.put("d", 4);
+        System.out.printf("get(b)=%s, get(a)=%s\n", cache.get("b"), cache.get("a"));
+        System.out.println(cache);
+
+        // 按字符串长度计算权重，总权重不超过10
+        LruCache<String, String> weighted = new LruCache<>(10, (k, v) -> v.length());
+        weighted.put("x", "hello");
+        weighted.put("y", "world");
+        weighted.put("z", "!!");
+        System.out.printf("containsKey(x)=%b, weight()=%d\n", weighted.containsKey("x"), weighted.weight());
+    }
+}
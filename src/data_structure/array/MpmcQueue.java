@@ -0,0 +1,170 @@
+package data_structure.array;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界的多生产者多消费者无锁队列(Dmitry Vyukov 的有界 MPMC 队列)
+ * <p>
+ * 每个槽位带一个序号，序号决定槽位当前轮到谁：
+ * <ul>
+ * <li>序号 == pos：槽位空闲，位置pos的生产者可以写入</li>
+ * <li>序号 == pos + 1：槽位已写入，位置pos的消费者可以取走</li>
+ * </ul>
+ * 生产者/消费者先用 CAS 抢到 tail/head 上的位置，再读写对应槽位，最后用 release 语义推进槽位序号。
+ * 队列满或空时 offer/poll 立即失败，不会阻塞。
+ */
+public class MpmcQueue<T> {
+
+    private final Object[] data;
+    // 每个槽位的序号
+    private final AtomicLongArray sequences;
+    private final int mask;
+    // 队头(下一个出队位置)
+    private final PaddedAtomicLong head = new PaddedAtomicLong();
+    // 队尾(下一个入队位置)
+    private final PaddedAtomicLong tail = new PaddedAtomicLong();
+
+    /**
+     * @param capacity 容量，会向上取整为2的幂，最小为2
+     */
+    public MpmcQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        data = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * 入队，队列已满时立即返回false
+     *
+     * @param target 元素，不能为null
+     * @return 是否入队成功
+     */
+    public boolean offer(T target) {
+        if (target == null) {
+            throw new NullPointerException();
+        }
+        long pos = tail.get();
+        int index;
+        while (true) {
+            index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // 槽位还没被上一轮的消费者取走：队列已满
+                return false;
+            } else {
+                // 被其他生产者抢先了
+                pos = tail.get();
+            }
+        }
+        data[index] = target;
+        sequences.lazySet(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * 出队，队列为空时立即返回null
+     *
+     * @return 队头元素
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long pos = head.get();
+        int index;
+        while (true) {
+            index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                // 槽位还没被生产者写入：队列为空
+                return null;
+            } else {
+                // 被其他消费者抢先了
+                pos = head.get();
+            }
+        }
+        T target = (T) data[index];
+        data[index] = null;
+        // 槽位留给下一轮的生产者
+        sequences.lazySet(index, pos + mask + 1);
+        return target;
+    }
+
+    /**
+     * 当前队列中的元素个数，并发修改时只是一个近似值
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        long h = head.get();
+        long t = tail.get();
+        return (int) Math.max(0, Math.min(t - h, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final MpmcQueue<Integer> queue = new MpmcQueue<>(1024);
+        final int producers = 4;
+        final int consumers = 4;
+        final int perProducer = 250000;
+        final AtomicLong sum = new AtomicLong();
+        final AtomicInteger received = new AtomicInteger();
+
+        Thread[] threads = new Thread[producers + consumers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads[producers + c] = new Thread(() -> {
+                while (received.get() < producers * perProducer) {
+                    Integer v = queue.poll();
+                    if (v == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    sum.addAndGet(v);
+                    received.incrementAndGet();
+                }
+            });
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        System.out.printf("received=%d, sum=%d, expected=%d\n", received.get(), sum.get(),
+                (long) producers * perProducer * (perProducer - 1) / 2);
+    }
+}
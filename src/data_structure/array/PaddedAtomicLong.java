@@ -0,0 +1,49 @@
+package data_structure.array;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 前后都填充了缓存行的 long 计数器
+ * <p>
+ * 队列的头、尾计数器分别被消费者和生产者频繁写入，落在同一缓存行上会互相失效(伪共享)。
+ * 这里借助类继承控制字段布局：value 前后各有 7 个 long 的填充，保证它独占一个 64 字节的缓存行。
+ */
+class PaddedAtomicLong extends PaddedAtomicLongValue {
+    long p9, p10, p11, p12, p13, p14, p15;
+
+    PaddedAtomicLong() {
+    }
+
+    PaddedAtomicLong(long initialValue) {
+        value = initialValue;
+    }
+}
+
+abstract class PaddedAtomicLongLhs {
+    long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class PaddedAtomicLongValue extends PaddedAtomicLongLhs {
+    private static final AtomicLongFieldUpdater<PaddedAtomicLongValue> UPDATER =
+            AtomicLongFieldUpdater.newUpdater(PaddedAtomicLongValue.class, "value");
+
+    volatile long value;
+
+    /**
+     * volatile 读，具有 acquire 语义
+     */
+    long get() {
+        return value;
+    }
+
+    /**
+     * 延迟写，具有 release 语义，比 volatile 写少一次 StoreLoad 屏障
+     */
+    void lazySet(long newValue) {
+        UPDATER.lazySet(this, newValue);
+    }
+
+    boolean compareAndSet(long expect, long update) {
+        return UPDATER.compareAndSet(this, expect, update);
+    }
+}
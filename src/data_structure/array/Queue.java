@@ -1,20 +1,62 @@
 package data_structure.array;
 
+import data_structure.metrics.Counter;
+import data_structure.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 基于环形数组的队列
+ * <p>
+ * 容量始终是2的幂，下标用 & mask 回绕；出队腾出的空间会被后续入队复用，
+ * 稳定的 add/remove 负载不再分配内存，只有元素个数真正超过容量时才扩容。
+ */
 public class Queue<T> {
-    private static final int DEFAULT_SIZE = 2;
+    private static final int DEFAULT_SIZE = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
     // 队列数据
     private T[] data;
     // 队列大小
     private int size;
+    // 队头下标
     private int front;
+    // data.length - 1
+    private int mask;
+    // 统计指标，默认不记录
+    private Counter resizes = Counter.NOOP;
+    private Counter copied = Counter.NOOP;
 
 
     public Queue() {
-        data = (T[]) new Object[DEFAULT_SIZE];
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param capacity 初始容量，会向上取整为2的幂
+     */
+    public Queue(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        data = (T[]) new Object[tableSizeFor(capacity)];
+        mask = data.length - 1;
         size = 0;
         front = 0;
     }
 
+    /**
+     * 返回不小于capacity的最小的2的幂
+     */
+    private static int tableSizeFor(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
     /**
      * 入队: 从队尾加入一元素
      *
@@ -24,7 +66,137 @@ public class Queue<T> {
         if (isFull()) {
             enlarge();
         }
-        data[size++] = target;
+        data[(front + size) & mask] = target;
+        size++;
+    }
+
+    /**
+     * 批量入队：src[off, off+len) 依次加入队尾
+     * <p>
+     * 只检查一次容量，队尾之后的空闲空间最多分成两段，各用一次 System.arraycopy
+     *
+     * @param src 元素数组
+     * @param off 起始下标
+     * @param len 个数
+     */
+    public void addAll(T[] src, int off, int len) {
+        if (off < 0 || len < 0 || off + len > src.length || off + len < 0) {
+            throw new IndexOutOfBoundsException("off: " + off + ", len: " + len + ", length: " + src.length);
+        }
+        if (len > data.length - size) {
+            grow(size + len);
+        }
+        int tail = (front + size) & mask;
+        int first = Math.min(len, data.length - tail);
+        System.arraycopy(src, off, data, tail, first);
+        System.arraycopy(src, off + first, data, 0, len - first);
+        size += len;
+    }
+
+    /**
+     * 批量入队：按集合的迭代顺序加入队尾
+     *
+     * @param c 集合
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(Collection<? extends T> c) {
+        Object[] src = c.toArray();
+        addAll((T[]) src, 0, src.length);
+    }
+
+    /**
+     * 批量出队：最多max个元素依次移到dst的开头
+     * <p>
+     * 只检查一次边界，元素最多分成 [front, length) 和 [0, tail) 两段，逐段顺序搬运并清空原来的槽位
+     *
+     * @param dst 目标数组
+     * @param max 最多移走的个数
+     * @return 实际移走的个数
+     */
+    public int drainTo(T[] dst, int max) {
+        int n = batchSize(dst, max);
+        int first = Math.min(n, data.length - front);
+        moveSegment(front, dst, 0, first);
+        moveSegment(0, dst, first, n - first);
+        front = (front + n) & mask;
+        size -= n;
+        return n;
+    }
+
+    /**
+     * 把data[from, from+len)搬到dst[to, to+len)，并清空原来的槽位
+     * <p>
+     * 这里不用 System.arraycopy：dst 通常是 T 的具体类型数组(如 Integer[])，从 Object[] 复制过去要逐个做类型检查，
+     * 走的是比普通复制慢得多的 checkcast 路径，而且之后还要再 fill 一遍 null；简单循环一次完成两件事，实测更快。
+     */
+    private void moveSegment(int from, T[] dst, int to, int len) {
+        T[] src = data;
+        for (int i = 0; i < len; i++) {
+            dst[to + i] = src[from + i];
+            src[from + i] = null;
+        }
+    }
+
+    /**
+     * 批量出队：最多max个元素依次交给action处理
+     * <p>
+     * action抛出异常时，已经处理过的元素(包括抛出异常的那个)算作已出队
+     *
+     * @param action 处理出队的元素
+     * @param max    最多移走的个数
+     * @return 实际移走的个数
+     */
+    public int drainTo(Consumer<? super T> action, int max) {
+        int n = Math.min(size, Math.max(max, 0));
+        int i = 0;
+        try {
+            while (i < n) {
+                int index = (front + i) & mask;
+                T target = data[index];
+                data[index] = null;
+                i++;
+                action.accept(target);
+            }
+        } finally {
+            front = (front + i) & mask;
+            size -= i;
+        }
+        return n;
+    }
+
+    /**
+     * 批量出队：最多n个元素
+     *
+     * @param n 最多移走的个数
+     * @return 出队的元素，按出队顺序排列
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> removeBatch(int n) {
+        T[] batch = (T[]) new Object[Math.min(size, Math.max(n, 0))];
+        drainTo(batch, batch.length);
+        return Arrays.asList(batch);
+    }
+
+    /**
+     * 批量查看：把队头开始的最多max个元素复制到dst的开头，不出队
+     *
+     * @param dst 目标数组
+     * @param max 最多复制的个数
+     * @return 实际复制的个数
+     */
+    public int peekBatch(T[] dst, int max) {
+        int n = batchSize(dst, max);
+        int first = Math.min(n, data.length - front);
+        System.arraycopy(data, front, dst, 0, first);
+        System.arraycopy(data, 0, dst, first, n - first);
+        return n;
+    }
+
+    /**
+     * 出队、查看的个数：不超过max、dst的长度与队列长度
+     */
+    private int batchSize(T[] dst, int max) {
+        return Math.min(Math.min(size, dst.length), Math.max(max, 0));
     }
 
     /**
@@ -52,7 +224,7 @@ public class Queue<T> {
         T target = data[front];
         data[front] = null;
 
-        front++;
+        front = (front + 1) & mask;
         size--;
 
         return target;
@@ -67,10 +239,19 @@ public class Queue<T> {
         return size;
     }
 
+    /**
+     * 当前队列的容量
+     *
+     * @return 容量
+     */
+    public int capacity() {
+        return data.length;
+    }
+
     /**
      * 判断当前队列是否为空
      *
-     * @return
+     * @return 是否为空
      */
     public boolean isEmpty() {
         return size == 0;
@@ -82,18 +263,62 @@ public class Queue<T> {
      * @return 是否已满
      */
     public boolean isFull() {
-        return data.length == size + front;
+        return size == data.length;
     }
 
     /**
      * 将数组容量扩大两倍
+     * <p>
+     * 环形数组中的元素最多分成 [front, length) 和 [0, tail) 两段，各用一次 System.arraycopy 搬到新数组的开头
      */
     public void enlarge() {
-        T[] newData = (T[]) new Object[size * 2];
-        for (int i = 0; i < size; i++) {
-            newData[i] = data[front + i];
+        if (data.length == MAX_CAPACITY) {
+            throw new IllegalStateException("队列已达到最大容量!");
         }
+        resize(data.length << 1);
+    }
+
+    /**
+     * 接入统计指标：扩容次数(queue.resizes)与扩容时复制的元素个数(queue.copied)
+     * <p>
+     * 复制的元素个数远大于入队个数说明初始容量太小，或者队列在反复涨落
+     *
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
+     */
+    public void setMetrics(Metrics metrics) {
+        setMetrics(metrics, "queue");
+    }
+
+    /**
+     * 接入统计指标
+     *
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
+     * @param prefix  指标名字的前缀
+     */
+    public void setMetrics(Metrics metrics, String prefix) {
+        resizes = metrics.counter(prefix + ".resizes");
+        copied = metrics.counter(prefix + ".copied");
+    }
+
+    /**
+     * 一次扩容到能放下minCapacity个元素，批量入队时避免多次翻倍
+     */
+    private void grow(int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("队列已达到最大容量!");
+        }
+        resize(tableSizeFor(minCapacity));
+    }
+
+    private void resize(int newCapacity) {
+        resizes.increment();
+        copied.add(size);
+        T[] newData = (T[]) new Object[newCapacity];
+        int head = Math.min(size, data.length - front);
+        System.arraycopy(data, front, newData, 0, head);
+        System.arraycopy(data, 0, newData, head, size - head);
         data = newData;
+        mask = data.length - 1;
         front = 0;
     }
 
@@ -105,7 +330,7 @@ public class Queue<T> {
         } else {
             sb.append("Queen Start:\n");
             for (int i = 0; i < size(); i++) {
-                sb.append(String.format("%d: %s \n", i, data[front + i]));
+                sb.append(String.format("%d: %s \n", i, data[(front + i) & mask]));
             }
             sb.append("Queen End!");
         }
@@ -132,5 +357,12 @@ public class Queue<T> {
         System.out.println("队头: " + queue.front());
 
         System.out.println(queue.toString());
+
+        queue.addAll(new Integer[]{4, 5, 6, 7, 8}, 1, 3);
+        queue.addAll(Arrays.asList(9, 10));
+        System.out.println("批量出队: " + queue.removeBatch(3));
+        Integer[] buffer = new Integer[8];
+        int n = queue.drainTo(buffer, buffer.length);
+        System.out.println("drainTo: " + Arrays.toString(Arrays.copyOf(buffer, n)) + ", size: " + queue.size());
     }
 }
@@ -0,0 +1,126 @@
+package data_structure.array;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界的单生产者单消费者无锁队列
+ * <p>
+ * 和 Queue 一样是容量为2的幂的环形数组。槽位是否为 null 就是它的状态：
+ * 生产者只在槽位为空时写入，消费者只在槽位非空时取走并置空，双方不需要读对方的计数器。
+ * 写入槽位和推进计数器都用 release 语义的 lazySet，读槽位用 acquire 语义的 get。
+ * <p>
+ * 只允许一个线程调用 offer，一个线程调用 poll/peek。
+ */
+public class SpscQueue<T> {
+
+    private final AtomicReferenceArray<T> data;
+    private final int mask;
+    // 队头(下一个出队位置)，只由消费者写入
+    private final PaddedAtomicLong head = new PaddedAtomicLong();
+    // 队尾(下一个入队位置)，只由生产者写入
+    private final PaddedAtomicLong tail = new PaddedAtomicLong();
+
+    /**
+     * @param capacity 容量，会向上取整为2的幂
+     */
+    public SpscQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        data = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * 入队，队列已满时立即返回false
+     *
+     * @param target 元素，不能为null
+     * @return 是否入队成功
+     */
+    public boolean offer(T target) {
+        if (target == null) {
+            throw new NullPointerException();
+        }
+        long t = tail.get();
+        int index = (int) t & mask;
+        if (data.get(index) != null) {
+            return false;
+        }
+        data.lazySet(index, target);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 出队，队列为空时立即返回null
+     *
+     * @return 队头元素
+     */
+    public T poll() {
+        long h = head.get();
+        int index = (int) h & mask;
+        T target = data.get(index);
+        if (target == null) {
+            return null;
+        }
+        data.lazySet(index, null);
+        head.lazySet(h + 1);
+        return target;
+    }
+
+    /**
+     * 返回队头元素，不出队；队列为空时返回null
+     *
+     * @return 队头元素
+     */
+    public T peek() {
+        return data.get((int) head.get() & mask);
+    }
+
+    /**
+     * 当前队列中的元素个数，并发修改时只是一个近似值
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        // 先读head，保证 tail - head 不会是负数
+        long h = head.get();
+        long t = tail.get();
+        return (int) Math.max(0, Math.min(t - h, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final SpscQueue<Integer> queue = new SpscQueue<>(1024);
+        final int n = 1000000;
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < n; i++) {
+                while (!queue.offer(i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            Integer v;
+            while ((v = queue.poll()) == null) {
+                Thread.yield();
+            }
+            sum += v;
+        }
+        producer.join();
+
+        System.out.printf("sum=%d, expected=%d\n", sum, (long) n * (n - 1) / 2);
+    }
+}
@@ -1,21 +1,79 @@
 package data_structure.array;
 
+import data_structure.metrics.Counter;
+import data_structure.metrics.Metrics;
+
 import java.lang.reflect.Array;
+import java.util.Arrays;
 
 public class Stack<T> {
 
     private static final int DEFAULT_SIZE = 32;
     private T[] array;
     private int count;
+    // 初始容量，收缩时不会小于它
+    private final int initialSize;
+    // 收缩的低水位：元素个数低于 容量 * shrinkRatio 时容量减半，0 表示不收缩
+    private float shrinkRatio;
+    // 统计指标，默认不记录
+    private Counter resizes = Counter.NOOP;
+    private Counter copied = Counter.NOOP;
 
     public Stack(Class<T> type) {
         this(type, DEFAULT_SIZE);
     }
 
     public Stack(Class<T> type, int size) {
+        this(type, size, 0);
+    }
+
+    /**
+     * @param type        元素类型
+     * @param size        初始容量
+     * @param shrinkRatio 收缩的低水位，取值[0, 0.5)，0 表示不收缩
+     */
+    public Stack(Class<T> type, int size, float shrinkRatio) {
         // 不能直接使用mArray = new T[DEFAULT_SIZE];
-        array = (T[]) Array.newInstance(type, size);
+        array = (T[]) Array.newInstance(type, Math.max(1, size));
         count = 0;
+        initialSize = array.length;
+        setShrinkRatio(shrinkRatio);
+    }
+
+    /**
+     * 设置收缩的低水位
+     * <p>
+     * 必须小于 0.5，否则刚减半的数组再压入一个元素就又要扩容，来回复制
+     *
+     * @param shrinkRatio 收缩的低水位，取值[0, 0.5)，0 表示不收缩
+     */
+    public void setShrinkRatio(float shrinkRatio) {
+        if (!(shrinkRatio >= 0 && shrinkRatio < 0.5f)) {
+            throw new IllegalArgumentException("shrinkRatio: " + shrinkRatio);
+        }
+        this.shrinkRatio = shrinkRatio;
+    }
+
+    /**
+     * 接入统计指标：扩容与收缩的次数(stack.resizes)、复制的元素个数(stack.copied)
+     * <p>
+     * 收缩的低水位设置不当时，栈在阈值附近涨落会反复复制，表现为 resizes 增长很快
+     *
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
+     */
+    public void setMetrics(Metrics metrics) {
+        setMetrics(metrics, "stack");
+    }
+
+    /**
+     * 接入统计指标
+     *
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
+     * @param prefix  指标名字的前缀
+     */
+    public void setMetrics(Metrics metrics, String prefix) {
+        resizes = metrics.counter(prefix + ".resizes");
+        copied = metrics.counter(prefix + ".copied");
     }
 
     /**
@@ -24,15 +82,21 @@ public class Stack<T> {
      * @param val 值
      */
     public void push(T val) {
+        if (count == array.length) {
+            grow(count + 1);
+        }
         array[count++] = val;
     }
 
     /**
      * 返回“栈顶元素值”
      *
-     * @return
+     * @return 栈顶元素值
      */
     public T peek() {
+        if (count == 0) {
+            throw new RuntimeException("栈为空!");
+        }
         return array[count - 1];
     }
 
@@ -42,11 +106,71 @@ public class Stack<T> {
      * @return 栈顶元素值
      */
     public T pop() {
-        T ret = array[count - 1];
-        count--;
+        if (count == 0) {
+            throw new RuntimeException("栈为空!");
+        }
+        T ret = array[--count];
+        // 释放引用，避免已出栈的元素无法被回收
+        array[count] = null;
+
+        if (count < array.length * shrinkRatio && array.length > initialSize) {
+            resize(Math.max(initialSize, array.length >>> 1));
+        }
         return ret;
     }
 
+    /**
+     * 保证容量不小于minCapacity
+     *
+     * @param minCapacity 最小容量
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > array.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * 把容量缩减为当前元素个数
+     */
+    public void trimToSize() {
+        if (array.length > count) {
+            resize(Math.max(1, count));
+        }
+    }
+
+    /**
+     * 返回当前容量
+     *
+     * @return 容量
+     */
+    public int capacity() {
+        return array.length;
+    }
+
+    /**
+     * 扩容到不小于minCapacity，至少扩大为原来的两倍，保证push均摊O(1)
+     *
+     * @param minCapacity 最小容量
+     */
+    private void grow(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        int newCapacity = array.length << 1;
+        if (newCapacity < minCapacity || newCapacity < 0) {
+            newCapacity = minCapacity;
+        }
+        resize(newCapacity);
+    }
+
+    private void resize(int capacity) {
+        resizes.increment();
+        copied.add(count);
+        // Arrays.copyOf 会保留数组的元素类型
+        array = Arrays.copyOf(array, capacity);
+    }
+
     /**
      * 返回“栈”的大小
      *
@@ -119,6 +243,17 @@ public class Stack<T> {
         stack.push(40);
 
         System.out.println(stack.toString());
+
+        // 超过默认容量后自动扩容，弹出后按低水位收缩
+        stack.setShrinkRatio(0.25f);
+        for (int i = 0; i < 100; i++) {
+            stack.push(i);
+        }
+        System.out.printf("size=%d, capacity=%d\n", stack.size(), stack.capacity());
+        while (stack.size() > 3) {
+            stack.pop();
+        }
+        System.out.printf("size=%d, capacity=%d\n", stack.size(), stack.capacity());
     }
 
 
@@ -0,0 +1,432 @@
+package data_structure.array;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 展开的双向链表：每个节点(块)存放一小段连续的元素
+ * <p>
+ * 与 DoubleLink 每个元素一个节点相比：
+ * <ul>
+ * <li>按位置访问时一次跳过一整块，只需遍历 n/块大小 个节点</li>
+ * <li>顺序遍历大部分时间在扫描连续数组，缓存命中率高</li>
+ * <li>节点头与前后指针的开销分摊到整块元素上，内存占用小得多</li>
+ * </ul>
+ * 插入时块满了就对半分裂；删除后块不足半满时，能放得下就与相邻的块合并。
+ */
+public class UnrolledDoubleLink<T> implements Iterable<T> {
+
+    /**
+     * 默认块大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    // 表头，不存放数据
+    private final Chunk<T> head;
+    // 每块最多的元素个数
+    private final int chunkSize;
+    // 元素个数
+    private int count;
+    // 结构修改次数，迭代器据此快速失败
+    private int modCount;
+
+    // locate/removeAt 的结果：元素所在的块与块内位置
+    private Chunk<T> found;
+    private int foundOffset;
+
+    public UnrolledDoubleLink() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize 块大小，至少为4
+     */
+    public UnrolledDoubleLink(int chunkSize) {
+        if (chunkSize < 4) {
+            throw new IllegalArgumentException("块大小至少为4: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        head = new Chunk<>(0);
+        head.prev = head;
+        head.next = head;
+    }
+
+    /**
+     * 定位第index个元素，结果放在found/foundOffset中
+     *
+     * @param index 位置，0 <= index < count
+     */
+    private void locate(int index) {
+        Chunk<T> chunk;
+        if (index <= count / 2) { // 正向查找
+            chunk = head.next;
+            while (index >= chunk.size) {
+                index -= chunk.size;
+                chunk = chunk.next;
+            }
+        } else { // 反向查找，rindex是从末尾数第几个
+            chunk = head.prev;
+            int rindex = count - index;
+            while (rindex > chunk.size) {
+                rindex -= chunk.size;
+                chunk = chunk.prev;
+            }
+            index = chunk.size - rindex;
+        }
+        found = chunk;
+        foundOffset = index;
+    }
+
+    private void checkElementIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+    }
+
+    /**
+     * 获取第index位置的值
+     *
+     * @param index 位置
+     * @return 值
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkElementIndex(index);
+        locate(index);
+        return (T) found.values[foundOffset];
+    }
+
+    /**
+     * 替换第index位置的值
+     *
+     * @param index 位置
+     * @param t     新值
+     * @return 原来的值
+     */
+    @SuppressWarnings("unchecked")
+    public T set(int index, T t) {
+        checkElementIndex(index);
+        locate(index);
+        T old = (T) found.values[foundOffset];
+        found.values[foundOffset] = t;
+        return old;
+    }
+
+    public T getFirst() {
+        return get(0);
+    }
+
+    public T getLast() {
+        return get(count - 1);
+    }
+
+    /**
+     * 将元素插入到第index位置之前
+     *
+     * @param index 位置
+     * @param t     值
+     */
+    public void insert(int index, T t) {
+        if (index < 0 || index > count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        if (index == count) {
+            appendLast(t);
+            return;
+        }
+        locate(index);
+        insertAt(found, foundOffset, t);
+    }
+
+    public void insertFirst(T t) {
+        insert(0, t);
+    }
+
+    /**
+     * 将元素追加到末尾。最后一块满了才新建一块，顺序追加时每块都是满的
+     *
+     * @param t 值
+     */
+    public void appendLast(T t) {
+        Chunk<T> last = head.prev;
+        if (last == head || last.size == chunkSize) {
+            last = linkAfter(head.prev);
+        }
+        last.values[last.size++] = t;
+        count++;
+        modCount++;
+    }
+
+    /**
+     * 删除index位置的元素
+     *
+     * @param index 位置
+     */
+    public void del(int index) {
+        checkElementIndex(index);
+        locate(index);
+        removeAt(found, foundOffset);
+    }
+
+    public void delFirst() {
+        del(0);
+    }
+
+    public void delLast() {
+        del(count - 1);
+    }
+
+    /**
+     * 在chunk的offset处插入，块满时先对半分裂
+     */
+    private void insertAt(Chunk<T> chunk, int offset, T t) {
+        if (chunk.size == chunkSize) {
+            Chunk<T> right = linkAfter(chunk);
+            int half = chunkSize / 2;
+            right.size = chunkSize - half;
+            System.arraycopy(chunk.values, half, right.values, 0, right.size);
+            nullOut(chunk.values, half, chunkSize);
+            chunk.size = half;
+            if (offset > half) {
+                chunk = right;
+                offset -= half;
+            }
+        }
+        System.arraycopy(chunk.values, offset, chunk.values, offset + 1, chunk.size - offset);
+        chunk.values[offset] = t;
+        chunk.size++;
+        count++;
+        modCount++;
+    }
+
+    /**
+     * 删除chunk中offset处的元素，块不足半满时尝试与前一块或后一块合并
+     * <p>
+     * 结束后found/foundOffset指向被删除元素的下一个元素，到达末尾时指向表头
+     */
+    private void removeAt(Chunk<T> chunk, int offset) {
+        System.arraycopy(chunk.values, offset + 1, chunk.values, offset, chunk.size - offset - 1);
+        chunk.values[--chunk.size] = null;
+        count--;
+        modCount++;
+
+        found = chunk;
+        foundOffset = offset;
+        if (chunk.size == 0) {
+            found = chunk.next;
+            foundOffset = 0;
+            unlink(chunk);
+        } else if (chunk.size < chunkSize / 2) {
+            Chunk<T> prev = chunk.prev;
+            Chunk<T> next = chunk.next;
+            if (prev != head && prev.size + chunk.size <= chunkSize) {
+                // 并入前一块
+                System.arraycopy(chunk.values, 0, prev.values, prev.size, chunk.size);
+                found = prev;
+                foundOffset = prev.size + offset;
+                prev.size += chunk.size;
+                unlink(chunk);
+            } else if (next != head && chunk.size + next.size <= chunkSize) {
+                // 后一块并入
+                System.arraycopy(next.values, 0, chunk.values, chunk.size, next.size);
+                chunk.size += next.size;
+                unlink(next);
+            }
+        }
+        if (found != head && foundOffset == found.size) {
+            found = found.next;
+            foundOffset = 0;
+        }
+    }
+
+    /**
+     * 在chunk之后新建一个空块
+     */
+    private Chunk<T> linkAfter(Chunk<T> chunk) {
+        Chunk<T> created = new Chunk<>(chunkSize);
+        created.prev = chunk;
+        created.next = chunk.next;
+        chunk.next.prev = created;
+        chunk.next = created;
+        return created;
+    }
+
+    private void unlink(Chunk<T> chunk) {
+        chunk.prev.next = chunk.next;
+        chunk.next.prev = chunk.prev;
+        chunk.prev = null;
+        chunk.next = null;
+    }
+
+    private static void nullOut(Object[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            values[i] = null;
+        }
+    }
+
+    /**
+     * 返回元素个数
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void clear() {
+        head.prev = head;
+        head.next = head;
+        count = 0;
+        modCount++;
+    }
+
+    /**
+     * 块的个数
+     *
+     * @return 块的个数
+     */
+    public int chunkCount() {
+        int chunks = 0;
+        for (Chunk<T> chunk = head.next; chunk != head; chunk = chunk.next) {
+            chunks++;
+        }
+        return chunks;
+    }
+
+    /**
+     * 按顺序逐块扫描数组
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        int expectedModCount = modCount;
+        for (Chunk<T> chunk = head.next; chunk != head; chunk = chunk.next) {
+            Object[] values = chunk.values;
+            for (int i = 0, n = chunk.size; i < n; i++) {
+                action.accept((T) values[i]);
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), count, Spliterator.ORDERED);
+    }
+
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    private class Itr implements Iterator<T> {
+        // 下一次next()返回的元素所在的块与位置，到达末尾时为表头
+        private Chunk<T> next = head.next;
+        private int nextOffset;
+        // 上一次next()返回的元素所在的块与位置
+        private Chunk<T> lastChunk;
+        private int lastOffset;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != head;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next == head) {
+                throw new NoSuchElementException();
+            }
+            lastChunk = next;
+            lastOffset = nextOffset;
+            T value = (T) next.values[nextOffset];
+            if (++nextOffset == next.size) {
+                next = next.next;
+                nextOffset = 0;
+            }
+            return value;
+        }
+
+        @Override
+        public void remove() {
+            if (lastChunk == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(lastChunk, lastOffset);
+            next = found;
+            nextOffset = foundOffset;
+            lastChunk = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * 块：一段连续存放的元素
+     */
+    private static class Chunk<T> {
+        Chunk<T> prev;
+        Chunk<T> next;
+        final Object[] values;
+        int size;
+
+        Chunk(int capacity) {
+            values = new Object[capacity];
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        for (T t : this) {
+            sb.append("dlink(").append(i++).append(")=").append(t).append("\n");
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        UnrolledDoubleLink<Integer> dlink = new UnrolledDoubleLink<>(4);
+
+        for (int i = 0; i < 10; i++) {
+            dlink.appendLast(i);
+        }
+        dlink.insert(5, 100);
+        dlink.insertFirst(-1);
+        dlink.del(3);
+        System.out.printf("size()=%d, chunkCount()=%d, get(5)=%d\n", dlink.size(), dlink.chunkCount(), dlink.get(5));
+
+        // 遍历时删除所有偶数
+        Iterator<Integer> it = dlink.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 0) {
+                it.remove();
+            }
+        }
+        System.out.println(dlink.toString());
+        System.out.println("sum=" + dlink.stream().mapToInt(Integer::intValue).sum());
+    }
+}
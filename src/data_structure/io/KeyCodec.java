@@ -0,0 +1,43 @@
+package data_structure.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 快照中单个键值的二进制编码
+ * <p>
+ * 定长编码(fixedSize() > 0)直接连续存放；变长编码由快照在每条记录前写入4字节的长度，
+ * 编码本身不需要处理分隔。typeId 写在文件头里，读取时用来确认使用的是同一种编码。
+ */
+public interface KeyCodec<T> {
+
+    /**
+     * 编码类型，写入文件头。内置编码使用1..63，自定义编码请使用64及以上
+     *
+     * @return 类型编号
+     */
+    byte typeId();
+
+    /**
+     * 定长编码的字节数
+     *
+     * @return 字节数，变长编码返回-1
+     */
+    int fixedSize();
+
+    /**
+     * 把key写入out的当前位置
+     *
+     * @param key 键值，不为null
+     * @param out 缓冲区，剩余空间不足时抛出 BufferOverflowException，由调用方腾出空间后重试
+     */
+    void encode(T key, ByteBuffer out);
+
+    /**
+     * 从in的当前位置读出一个键值，恰好消费length个字节
+     *
+     * @param in     缓冲区，保证至少有length个字节
+     * @param length 字节数，定长编码时等于 fixedSize()
+     * @return 键值
+     */
+    T decode(ByteBuffer in, int length);
+}
@@ -0,0 +1,97 @@
+package data_structure.io;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 内置的键值编码
+ */
+public final class KeyCodecs {
+
+    /**
+     * Integer，定长4字节
+     */
+    public static final KeyCodec<Integer> INT = new KeyCodec<Integer>() {
+        @Override
+        public byte typeId() {
+            return 1;
+        }
+
+        @Override
+        public int fixedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer key, ByteBuffer out) {
+            out.putInt(key);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer in, int length) {
+            return in.getInt();
+        }
+    };
+
+    /**
+     * Long，定长8字节
+     */
+    public static final KeyCodec<Long> LONG = new KeyCodec<Long>() {
+        @Override
+        public byte typeId() {
+            return 2;
+        }
+
+        @Override
+        public int fixedSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long key, ByteBuffer out) {
+            out.putLong(key);
+        }
+
+        @Override
+        public Long decode(ByteBuffer in, int length) {
+            return in.getLong();
+        }
+    };
+
+    /**
+     * String，变长，UTF-8
+     */
+    public static final KeyCodec<String> STRING = new KeyCodec<String>() {
+        @Override
+        public byte typeId() {
+            return 3;
+        }
+
+        @Override
+        public int fixedSize() {
+            return -1;
+        }
+
+        @Override
+        public void encode(String key, ByteBuffer out) {
+            out.put(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(ByteBuffer in, int length) {
+            String key;
+            if (in.hasArray()) {
+                key = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+            } else {
+                byte[] bytes = new byte[length];
+                in.get(bytes);
+                key = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return key;
+        }
+    };
+
+    private KeyCodecs() {
+    }
+}
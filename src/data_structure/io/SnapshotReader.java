@@ -0,0 +1,181 @@
+package data_structure.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * 顺序读取快照，以迭代器的形式逐条交出记录
+ * <p>
+ * 记录读一条解码一条，不会把整个文件读进内存；缓冲区读空时把剩余的半条记录挪到开头(compact)再从文件补充。
+ * 校验和随着记录的消费逐段计算，全部读完后由 finish 核对。
+ * 迭代器不能抛出受检异常，读取中的 IOException 包装成 UncheckedIOException。
+ */
+final class SnapshotReader<T> implements Iterator<T>, Closeable {
+
+    private final FileChannel channel;
+    private final KeyCodec<T> codec;
+    private final CRC32 crc = new CRC32();
+    private final byte flags;
+    private final int count;
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(Snapshots.BUFFER_SIZE);
+    // 缓冲区中还没有计入校验和的第一个字节
+    private int crcFrom;
+    private int read;
+
+    /**
+     * 打开快照并校验文件头
+     *
+     * @param path  快照文件
+     * @param kind  期望的数据结构类型
+     * @param codec 键值编码，类型编号必须与文件头一致
+     */
+    SnapshotReader(Path path, byte kind, KeyCodec<T> codec) throws IOException {
+        this.codec = codec;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.flip();
+        try {
+            require(Snapshots.HEADER_SIZE);
+            if (buffer.getInt() != Snapshots.MAGIC) {
+                throw new IOException("不是快照文件: " + path);
+            }
+            short version = buffer.getShort();
+            if (version < 1 || version > Snapshots.VERSION) {
+                throw new IOException("不支持的快照版本: " + version);
+            }
+            byte actualKind = buffer.get();
+            if (actualKind != kind) {
+                throw new IOException("快照的数据结构类型是" + actualKind + "，期望" + kind);
+            }
+            byte typeId = buffer.get();
+            if (typeId != codec.typeId()) {
+                throw new IOException("快照的键值编码是" + typeId + "，传入的编码是" + codec.typeId());
+            }
+            flags = buffer.get();
+            buffer.position(buffer.position() + 3); // 保留
+            count = buffer.getInt();
+            if (count < 0) {
+                throw new IOException("记录个数: " + count);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    byte flags() {
+        return flags;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * 保证缓冲区中至少有n个未读的字节
+     */
+    private void require(int n) throws IOException {
+        if (buffer.remaining() >= n) {
+            return;
+        }
+        updateCrc();
+        buffer.compact();
+        if (buffer.capacity() < n) {
+            ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(n, buffer.capacity() * 2));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("快照文件不完整");
+            }
+        }
+        buffer.flip();
+        crcFrom = 0;
+    }
+
+    /**
+     * 已经消费的字节计入校验和
+     */
+    private void updateCrc() {
+        ByteBuffer consumed = buffer.duplicate();
+        consumed.position(crcFrom);
+        consumed.limit(buffer.position());
+        crc.update(consumed);
+        crcFrom = buffer.position();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return read < count;
+    }
+
+    @Override
+    public T next() {
+        if (read >= count) {
+            throw new NoSuchElementException();
+        }
+        try {
+            T key;
+            int fixed = codec.fixedSize();
+            if (fixed > 0) {
+                require(fixed);
+                key = codec.decode(buffer, fixed);
+            } else {
+                require(Integer.BYTES);
+                int length = buffer.getInt();
+                if (length < 0) {
+                    throw new IOException("记录长度: " + length);
+                }
+                // 放得进缓冲区的长度即使是坏的，require 也只会以 EOFException 结束；
+                // 只有要扩大缓冲区时才核对文件剩余的字节数，免得按损坏的长度分配内存，也免得每条记录都做两次系统调用
+                if (length > buffer.capacity()) {
+                    long available = channel.size() - channel.position() + buffer.remaining() - Integer.BYTES;
+                    if (length > available) {
+                        throw new IOException("记录长度" + length + "超出了文件剩余的" + available + "个字节，文件已损坏");
+                    }
+                }
+                require(length);
+                int start = buffer.position();
+                key = codec.decode(buffer, length);
+                if (buffer.position() != start + length) {
+                    throw new IOException("键值编码消费了" + (buffer.position() - start) + "个字节，记录长度是" + length);
+                }
+            }
+            read++;
+            return key;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 所有记录读完之后核对校验和
+     */
+    void finish() throws IOException {
+        if (read != count) {
+            throw new IllegalStateException("还有" + (count - read) + "条记录没有读取");
+        }
+        updateCrc();
+        int expected = (int) crc.getValue();
+        require(Integer.BYTES);
+        if (buffer.getInt() != expected) {
+            throw new IOException("快照校验和不一致，文件已损坏");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
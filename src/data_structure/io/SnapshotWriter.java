@@ -0,0 +1,146 @@
+package data_structure.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 顺序写出快照
+ * <p>
+ * 先写到同目录下的临时文件，commit 时补上校验和并刷盘，再原子地改名为目标文件：
+ * 写到一半失败或进程退出时，原来的快照保持不变。
+ */
+final class SnapshotWriter<T> implements Closeable {
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final KeyCodec<T> codec;
+    private final int count;
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(Snapshots.BUFFER_SIZE);
+    private int written;
+    private boolean committed;
+
+    /**
+     * 打开临时文件并写入文件头
+     *
+     * @param path  目标文件
+     * @param kind  数据结构类型
+     * @param flags 标志位
+     * @param codec 键值编码
+     * @param count 将要写入的记录个数
+     */
+    SnapshotWriter(Path path, byte kind, byte flags, KeyCodec<T> codec, int count) throws IOException {
+        this.target = path;
+        this.temp = path.resolveSibling(path.getFileName() + ".tmp");
+        this.codec = codec;
+        this.count = count;
+        channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+
+        buffer.putInt(Snapshots.MAGIC);
+        buffer.putShort(Snapshots.VERSION);
+        buffer.put(kind);
+        buffer.put(codec.typeId());
+        buffer.put(flags);
+        buffer.put(new byte[3]); // 保留
+        buffer.putInt(count);
+    }
+
+    /**
+     * 写入一条记录
+     *
+     * @param key 键值，不能为null
+     */
+    void write(T key) throws IOException {
+        if (key == null) {
+            throw new NullPointerException("快照不支持null元素");
+        }
+        int fixed = codec.fixedSize();
+        if (fixed > 0) {
+            if (buffer.remaining() < fixed) {
+                flush();
+            }
+            codec.encode(key, buffer);
+        } else {
+            // 变长记录：先留出4字节，编码完成后回填长度，空间不足时腾出空间重新编码
+            while (true) {
+                int start = buffer.position();
+                try {
+                    if (buffer.remaining() < Integer.BYTES) {
+                        throw new BufferOverflowException();
+                    }
+                    buffer.position(start + Integer.BYTES);
+                    codec.encode(key, buffer);
+                    buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+                    break;
+                } catch (BufferOverflowException e) {
+                    buffer.position(start);
+                    if (start == 0) {
+                        // 空缓冲区也放不下，单条记录比缓冲区还大
+                        buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                    } else {
+                        flush();
+                    }
+                }
+            }
+        }
+        written++;
+    }
+
+    /**
+     * 把缓冲区中的数据计入校验和并写入文件
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 写入校验和、刷盘，并替换目标文件
+     */
+    void commit() throws IOException {
+        if (written != count) {
+            throw new IllegalStateException("写入了" + written + "条记录，文件头中是" + count + "条，写出期间数据结构被修改了");
+        }
+        flush();
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        channel.close();
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+    }
+
+    /**
+     * 没有 commit 时删除临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+}
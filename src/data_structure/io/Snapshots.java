@@ -0,0 +1,161 @@
+package data_structure.io;
+
+import data_structure.array.DoubleLink;
+import data_structure.tree.BSTree;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * BSTree 与 DoubleLink 的二进制快照
+ * <p>
+ * 文件格式(大端)：
+ * <pre>
+ * 0   int    魔数 "DSNP"
+ * 4   short  版本，当前为1
+ * 6   byte   数据结构类型：1 BSTree，2 DoubleLink
+ * 7   byte   键值编码的类型编号
+ * 8   byte   标志位：bit0 BSTree 为自平衡模式
+ * 9   byte[3] 保留
+ * 12  int    记录个数
+ * 16  记录   定长编码直接连续存放，变长编码每条记录前有4字节长度
+ * ... int    之前所有字节的 CRC32
+ * </pre>
+ * BSTree 按中序写出，读取时边解码边交给 BSTree.fromSorted 线性时间建成完全平衡的树，没有逐个 insert 的比较和旋转；
+ * DoubleLink 按顺序写出，读取时逐个 appendLast。两者都通过 FileChannel 与直接缓冲区顺序读写，不会一次把整个文件读进内存。
+ */
+public final class Snapshots {
+
+    static final int MAGIC = 0x44534E50; // "DSNP"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    static final byte KIND_BSTREE = 1;
+    static final byte KIND_DOUBLE_LINK = 2;
+
+    static final byte FLAG_BALANCED = 1;
+
+    private Snapshots() {
+    }
+
+    /**
+     * 把树按中序写入快照，目标文件已存在时替换
+     *
+     * @param tree  树
+     * @param codec 键值编码
+     * @param path  快照文件
+     * @throws IOException 写入失败，此时原来的文件保持不变
+     */
+    public static <T extends Comparable> void write(BSTree<T> tree, KeyCodec<T> codec, Path path) throws IOException {
+        byte flags = tree.isBalanced() ? FLAG_BALANCED : 0;
+        try (SnapshotWriter<T> writer = new SnapshotWriter<>(path, KIND_BSTREE, flags, codec, tree.size())) {
+            for (T key : tree) {
+                writer.write(key);
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * 从快照恢复树，O(n)，得到的树是完全平衡的，保留写出时的自平衡模式
+     *
+     * @param path  快照文件
+     * @param codec 键值编码，必须与写入时一致
+     * @return 树
+     * @throws IOException 读取失败、格式不对或校验和不一致
+     */
+    public static <T extends Comparable> BSTree<T> readBSTree(Path path, KeyCodec<T> codec) throws IOException {
+        try (SnapshotReader<T> reader = new SnapshotReader<>(path, KIND_BSTREE, codec)) {
+            BSTree<T> tree;
+            try {
+                tree = BSTree.fromSorted(reader, reader.count(), (reader.flags() & FLAG_BALANCED) != 0);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("快照中的键值不是严格递增的，文件已损坏", e);
+            }
+            reader.finish();
+            return tree;
+        }
+    }
+
+    /**
+     * 把链表按顺序写入快照，目标文件已存在时替换
+     *
+     * @param list  链表，不能包含null
+     * @param codec 键值编码
+     * @param path  快照文件
+     * @throws IOException 写入失败，此时原来的文件保持不变
+     */
+    public static <T> void write(DoubleLink<T> list, KeyCodec<T> codec, Path path) throws IOException {
+        try (SnapshotWriter<T> writer = new SnapshotWriter<>(path, KIND_DOUBLE_LINK, (byte) 0, codec, list.size())) {
+            for (T value : list) {
+                writer.write(value);
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * 从快照恢复链表，逐个追加到末尾
+     *
+     * @param path  快照文件
+     * @param codec 键值编码，必须与写入时一致
+     * @return 链表
+     * @throws IOException 读取失败、格式不对或校验和不一致
+     */
+    public static <T> DoubleLink<T> readDoubleLink(Path path, KeyCodec<T> codec) throws IOException {
+        try (SnapshotReader<T> reader = new SnapshotReader<>(path, KIND_DOUBLE_LINK, codec)) {
+            DoubleLink<T> list = new DoubleLink<>();
+            try {
+                while (reader.hasNext()) {
+                    list.appendLast(reader.next());
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            reader.finish();
+            return list;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("snapshot");
+        Path treeFile = dir.resolve("tree.snap");
+        Path listFile = dir.resolve("list.snap");
+
+        BSTree<Integer> tree = new BSTree<>(true);
+        for (int i = 0; i < 1000000; i++) {
+            tree.insert(i * 7 % 1000003);
+        }
+        long start = System.nanoTime();
+        write(tree, KeyCodecs.INT, treeFile);
+        long written = System.nanoTime();
+        BSTree<Integer> restored = readBSTree(treeFile, KeyCodecs.INT);
+        long read = System.nanoTime();
+        System.out.printf("BSTree: %d 个键值, %d 字节, 写出 %.1fms, 恢复 %.1fms, 最小 %d, 最大 %d%n",
+                restored.size(), Files.size(treeFile), (written - start) / 1e6, (read - written) / 1e6,
+                restored.minimum(), restored.maximum());
+
+        DoubleLink<String> list = new DoubleLink<>();
+        list.appendLast("北京");
+        list.appendLast("上海");
+        list.appendLast("深圳");
+        write(list, KeyCodecs.STRING, listFile);
+        DoubleLink<String> copy = readDoubleLink(listFile, KeyCodecs.STRING);
+        System.out.println("DoubleLink: size=" + copy.size() + ", " + copy.getFirst() + " ... " + copy.getLast());
+
+        try {
+            readBSTree(listFile, KeyCodecs.INT);
+        } catch (IOException e) {
+            System.out.println("类型不匹配: " + e.getMessage());
+        }
+
+        Files.delete(treeFile);
+        Files.delete(listFile);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,41 @@
+package data_structure.metrics;
+
+/**
+ * 计数器
+ * <p>
+ * 数据结构在创建时持有 NOOP，调用点只有这一种实现，JIT 内联后空方法直接消失，关闭统计时没有开销。
+ */
+public interface Counter {
+
+    /**
+     * 什么也不做的计数器
+     */
+    Counter NOOP = new Counter() {
+        @Override
+        public void add(long delta) {
+        }
+
+        @Override
+        public long sum() {
+            return 0;
+        }
+    };
+
+    /**
+     * 累加
+     *
+     * @param delta 增量
+     */
+    void add(long delta);
+
+    default void increment() {
+        add(1);
+    }
+
+    /**
+     * 当前累计值
+     *
+     * @return 累计值
+     */
+    long sum();
+}
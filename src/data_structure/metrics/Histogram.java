@@ -0,0 +1,35 @@
+package data_structure.metrics;
+
+/**
+ * 直方图，记录一组非负数值(遍历步数、耗时纳秒等)的分布
+ */
+public interface Histogram {
+
+    /**
+     * 什么也不做的直方图
+     */
+    Histogram NOOP = new Histogram() {
+        @Override
+        public void record(long value) {
+        }
+
+        @Override
+        public MetricsSnapshot.HistogramSnapshot snapshot() {
+            return MetricsSnapshot.HistogramSnapshot.EMPTY;
+        }
+    };
+
+    /**
+     * 记录一个值
+     *
+     * @param value 数值，负数按0记录
+     */
+    void record(long value);
+
+    /**
+     * 当前分布的快照
+     *
+     * @return 快照
+     */
+    MetricsSnapshot.HistogramSnapshot snapshot();
+}
@@ -0,0 +1,59 @@
+package data_structure.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按2的幂分桶的直方图
+ * <p>
+ * 第0个桶放0，第i个桶放[2^(i-1), 2^i)，共65个桶覆盖整个long范围。
+ * 定位桶只需要一次 numberOfLeadingZeros，不需要预先知道取值范围；
+ * 相对误差不超过一倍，用来发现树退化成链表、耗时长尾这类数量级上的问题足够了。
+ */
+class Log2Histogram implements Histogram {
+
+    static final int BUCKETS = 65;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Log2Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    static int bucketOf(long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    @Override
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    @Override
+    public MetricsSnapshot.HistogramSnapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = counts[i].sum();
+            count += buckets[i];
+        }
+        return new MetricsSnapshot.HistogramSnapshot(count, sum.sum(), max.get(), buckets);
+    }
+
+    void reset() {
+        for (LongAdder count : counts) {
+            count.reset();
+        }
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,81 @@
+package data_structure.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 统计指标的注册表，数据结构通过 setMetrics 接入
+ * <p>
+ * 数据结构只在 setMetrics 时按名字取一次 Counter/Histogram 并保存在字段里，之后每次操作直接调用，
+ * 不再查表。默认使用 NOOP，统计是按需打开的。
+ */
+public interface Metrics {
+
+    /**
+     * 关闭统计：返回的计数器和直方图什么也不做
+     */
+    Metrics NOOP = new Metrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public Counter counter(String name) {
+            return Counter.NOOP;
+        }
+
+        @Override
+        public Histogram histogram(String name) {
+            return Histogram.NOOP;
+        }
+
+        @Override
+        public void gauge(String name, LongSupplier supplier) {
+        }
+
+        @Override
+        public MetricsSnapshot snapshot() {
+            return MetricsSnapshot.EMPTY;
+        }
+    };
+
+    /**
+     * 是否真正记录。为false时调用方可以连 System.nanoTime() 也省掉
+     *
+     * @return 是否记录
+     */
+    boolean isEnabled();
+
+    /**
+     * 按名字取计数器，同名的返回同一个，多个数据结构可以共用
+     *
+     * @param name 名字
+     * @return 计数器
+     */
+    Counter counter(String name);
+
+    /**
+     * 按名字取直方图，同名的返回同一个
+     *
+     * @param name 名字
+     * @return 直方图
+     */
+    Histogram histogram(String name);
+
+    /**
+     * 注册读数：不在操作时累加，导出快照时调用supplier读取当前值，适合树高这类维护起来不划算的量
+     * <p>
+     * supplier 在导出快照的线程上调用，由调用方保证它此时可以安全地读取数据结构。同名的读数后注册的替换先注册的
+     *
+     * @param name     名字
+     * @param supplier 读取当前值
+     */
+    void gauge(String name, LongSupplier supplier);
+
+    /**
+     * 导出所有指标的快照
+     *
+     * @return 快照
+     */
+    MetricsSnapshot snapshot();
+}
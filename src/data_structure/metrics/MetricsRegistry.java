@@ -0,0 +1,101 @@
+package data_structure.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于 LongAdder 的指标注册表，线程安全
+ * <p>
+ * 多个线程同时累加时各自落在不同的 Cell 上，不会争用同一个缓存行；读取(snapshot)时才求和。
+ */
+public class MetricsRegistry implements Metrics {
+
+    private final ConcurrentHashMap<String, AdderCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Log2Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new AdderCounter());
+    }
+
+    @Override
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new Log2Histogram());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier supplier) {
+        if (supplier == null) {
+            throw new NullPointerException();
+        }
+        gauges.put(name, supplier);
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, counter.sum()));
+        Map<String, Long> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.getAsLong()));
+        Map<String, MetricsSnapshot.HistogramSnapshot> histogramValues = new TreeMap<>();
+        histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot()));
+        return new MetricsSnapshot(counterValues, gaugeValues, histogramValues);
+    }
+
+    /**
+     * 清零所有计数器和直方图，已经取出的计数器和直方图继续有效；读数不受影响
+     */
+    public void reset() {
+        counters.values().forEach(counter -> counter.adder.reset());
+        histograms.values().forEach(Log2Histogram::reset);
+    }
+
+    private static class AdderCounter implements Counter {
+        private final LongAdder adder = new LongAdder();
+
+        @Override
+        public void add(long delta) {
+            adder.add(delta);
+        }
+
+        @Override
+        public void increment() {
+            adder.increment();
+        }
+
+        @Override
+        public long sum() {
+            return adder.sum();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final MetricsRegistry metrics = new MetricsRegistry();
+        final Counter ops = metrics.counter("demo.ops");
+        final Histogram steps = metrics.histogram("demo.steps");
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    ops.increment();
+                    steps.record(i % 100);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.print(metrics.snapshot());
+    }
+}
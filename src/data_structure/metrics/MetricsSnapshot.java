@@ -0,0 +1,168 @@
+package data_structure.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 某一时刻所有指标的快照，不可变
+ * <p>
+ * 各个指标是分别读取的，并发写入时彼此之间不保证是同一时刻的值。
+ * 计数器和直方图是累计值，读数(gauge)是导出时现算的当前值，例如树高。
+ * toString 每行输出一个指标，便于写日志或交给监控系统按名字告警。
+ */
+public final class MetricsSnapshot {
+
+    static final MetricsSnapshot EMPTY = new MetricsSnapshot(Collections.<String, Long>emptyMap(),
+            Collections.<String, Long>emptyMap(), Collections.<String, HistogramSnapshot>emptyMap());
+
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, HistogramSnapshot> histograms;
+
+    MetricsSnapshot(Map<String, Long> counters, Map<String, Long> gauges, Map<String, HistogramSnapshot> histograms) {
+        this.counters = Collections.unmodifiableMap(new TreeMap<>(counters));
+        this.gauges = Collections.unmodifiableMap(new TreeMap<>(gauges));
+        this.histograms = Collections.unmodifiableMap(new TreeMap<>(histograms));
+    }
+
+    /**
+     * 所有计数器，按名字排序
+     */
+    public Map<String, Long> counters() {
+        return counters;
+    }
+
+    /**
+     * 所有读数，按名字排序
+     */
+    public Map<String, Long> gauges() {
+        return gauges;
+    }
+
+    /**
+     * 所有直方图，按名字排序
+     */
+    public Map<String, HistogramSnapshot> histograms() {
+        return histograms;
+    }
+
+    /**
+     * 计数器的值
+     *
+     * @param name 名字
+     * @return 值，不存在时返回0
+     */
+    public long counter(String name) {
+        Long value = counters.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * 读数的值
+     *
+     * @param name 名字
+     * @return 值，不存在时返回0
+     */
+    public long gauge(String name) {
+        Long value = gauges.get(name);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * 直方图的快照
+     *
+     * @param name 名字
+     * @return 快照，不存在时返回空的快照
+     */
+    public HistogramSnapshot histogram(String name) {
+        HistogramSnapshot value = histograms.get(name);
+        return value == null ? HistogramSnapshot.EMPTY : value;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        counters.forEach((name, value) -> sb.append(name).append(' ').append(value).append('\n'));
+        gauges.forEach((name, value) -> sb.append(name).append(' ').append(value).append('\n'));
+        histograms.forEach((name, value) -> sb.append(name).append(' ').append(value).append('\n'));
+        return sb.toString();
+    }
+
+    /**
+     * 直方图的快照
+     */
+    public static final class HistogramSnapshot {
+
+        static final HistogramSnapshot EMPTY = new HistogramSnapshot(0, 0, 0, new long[Log2Histogram.BUCKETS]);
+
+        private final long count;
+        private final long sum;
+        private final long max;
+        private final long[] buckets;
+
+        HistogramSnapshot(long count, long sum, long max, long[] buckets) {
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.buckets = buckets;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long sum() {
+            return sum;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * 第i个桶的个数，第0个桶是0，第i个桶是[2^(i-1), 2^i)
+         *
+         * @param i 桶的下标
+         * @return 个数
+         */
+        public long bucket(int i) {
+            return buckets[i];
+        }
+
+        /**
+         * 分位数的估计值：取所在桶的上界，且不超过最大值
+         *
+         * @param quantile 分位，取值[0, 1]
+         * @return 估计值，没有数据时返回0
+         */
+        public long percentile(double quantile) {
+            if (quantile < 0 || quantile > 1) {
+                throw new IllegalArgumentException("quantile: " + quantile);
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    long upper = i == 0 ? 0 : (i == 64 ? Long.MAX_VALUE : (1L << i) - 1);
+                    return Math.min(upper, max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1f p50=%d p99=%d max=%d",
+                    count, mean(), percentile(0.5), percentile(0.99), max);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package data_structure.tree;
+
+import java.util.Arrays;
+
+/**
+ * 用数组存放结点的二叉查找树(结构数组布局)
+ * <p>
+ * 结点不再是对象，而是数组下标：left/right/parent 三个 int[] 分别保存左孩子、右孩子、父结点的下标，
+ * 键值由子类保存在基本类型数组中。整棵树只有寥寥几个数组对象，没有对象头和引用，GC 几乎不需要追踪。
+ * <p>
+ * 删除的结点放入空闲链表(借用 left[] 串起来)，之后的插入优先复用；数组只在空闲链表为空时按两倍扩容。
+ * <p>
+ * 与 BSTree 的默认模式一样，插入和删除不做平衡。
+ */
+public abstract class ArrayBSTree {
+
+    /**
+     * 空结点
+     */
+    public static final int NIL = -1;
+
+    private static final int DEFAULT_SIZE = 16;
+
+    protected int[] left;
+    protected int[] right;
+    protected int[] parent;
+    protected int root = NIL;
+
+    // 结点个数
+    private int size;
+    // 曾经分配过的最大下标 + 1，之后的下标从未使用过
+    private int used;
+    // 空闲链表的表头
+    private int freeHead = NIL;
+
+    protected ArrayBSTree(int capacity) {
+        capacity = Math.max(1, capacity);
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+    }
+
+    protected ArrayBSTree() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * 扩容时把键值数组也扩大到newCapacity
+     *
+     * @param newCapacity 新容量
+     */
+    protected abstract void growKeys(int newCapacity);
+
+    /**
+     * 把from结点的键值复制到to结点
+     */
+    protected abstract void copyKey(int from, int to);
+
+    /**
+     * 分配一个结点，左右孩子和父结点都为空
+     *
+     * @return 结点下标
+     */
+    protected int allocate() {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = left[node];
+        } else {
+            if (used == left.length) {
+                grow();
+            }
+            node = used++;
+        }
+        left[node] = NIL;
+        right[node] = NIL;
+        parent[node] = NIL;
+        size++;
+        return node;
+    }
+
+    /**
+     * 释放结点，放入空闲链表
+     */
+    private void free(int node) {
+        left[node] = freeHead;
+        right[node] = NIL;
+        parent[node] = NIL;
+        freeHead = node;
+        size--;
+    }
+
+    private void grow() {
+        int newCapacity = left.length << 1;
+        if (newCapacity < 0) {
+            throw new OutOfMemoryError();
+        }
+        left = Arrays.copyOf(left, newCapacity);
+        right = Arrays.copyOf(right, newCapacity);
+        parent = Arrays.copyOf(parent, newCapacity);
+        growKeys(newCapacity);
+    }
+
+    /**
+     * 把新结点挂到父结点下
+     *
+     * @param node    新结点
+     * @param p       父结点，NIL表示作为根结点
+     * @param isLeft  是否为左孩子
+     */
+    protected void link(int node, int p, boolean isLeft) {
+        parent[node] = p;
+        if (p == NIL) {
+            root = node;
+        } else if (isLeft) {
+            left[p] = node;
+        } else {
+            right[p] = node;
+        }
+    }
+
+    /**
+     * 查找最小结点：返回tree为根结点的二叉树的最小结点。
+     *
+     * @param tree 二叉树
+     * @return 最小结点
+     */
+    protected int minimum(int tree) {
+        while (tree != NIL && left[tree] != NIL) {
+            tree = left[tree];
+        }
+        return tree;
+    }
+
+    /**
+     * 查找最大结点：返回tree为根结点的二叉树的最大结点。
+     *
+     * @param tree 二叉树
+     * @return 最大结点
+     */
+    protected int maximum(int tree) {
+        while (tree != NIL && right[tree] != NIL) {
+            tree = right[tree];
+        }
+        return tree;
+    }
+
+    /**
+     * 最小结点
+     *
+     * @return 结点下标，树为空时返回NIL
+     */
+    public int minimum() {
+        return minimum(root);
+    }
+
+    /**
+     * 最大结点
+     *
+     * @return 结点下标，树为空时返回NIL
+     */
+    public int maximum() {
+        return maximum(root);
+    }
+
+    /**
+     * 找结点(x)的后继结点。即，查找"二叉树中数据值大于该结点"的"最小结点"。
+     *
+     * @param node 结点
+     * @return 后继结点，没有时返回NIL
+     */
+    public int successor(int node) {
+        if (right[node] != NIL) {
+            return minimum(right[node]);
+        }
+        int p = parent[node];
+        while (p != NIL && right[p] == node) {
+            node = p;
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * 找结点(x)的前驱结点。即，查找"二叉树中数据值小于该结点"的"最大结点"。
+     *
+     * @param node 结点
+     * @return 前驱结点，没有时返回NIL
+     */
+    public int predecessor(int node) {
+        if (left[node] != NIL) {
+            return maximum(left[node]);
+        }
+        int p = parent[node];
+        while (p != NIL && left[p] == node) {
+            node = p;
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * 删除结点(z)
+     * <p>
+     * 与 BSTree.remove 相同：z有两个孩子时，把后继结点的键值搬进z，实际摘下的是后继结点
+     *
+     * @param z 要删除的结点
+     */
+    public void removeNode(int z) {
+        int y = left[z] == NIL || right[z] == NIL ? z : successor(z);
+        int x = left[y] != NIL ? left[y] : right[y];
+        int p = parent[y];
+
+        if (x != NIL) {
+            parent[x] = p;
+        }
+
+        if (p == NIL)
+            root = x;
+        else if (y == left[p])
+            left[p] = x;
+        else
+            right[p] = x;
+
+        if (y != z)
+            copyKey(y, z);
+
+        free(y);
+    }
+
+    /**
+     * 返回结点个数
+     *
+     * @return 结点个数
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 当前容量(能容纳的结点个数)
+     *
+     * @return 容量
+     */
+    public int capacity() {
+        return left.length;
+    }
+
+    /**
+     * 清空树，保留已分配的数组
+     */
+    public void clear() {
+        root = NIL;
+        size = 0;
+        used = 0;
+        freeHead = NIL;
+    }
+}
@@ -0,0 +1,617 @@
+package data_structure.tree;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * B+树：键值存放在结点内的数组里，所有键值都在叶子结点上，叶子结点之间用双向链表串起来
+ * <p>
+ * 与 BSTree 相比：
+ * <ul>
+ * <li>每个结点最多有order个键值，查找一次只需要 log(order)(n) 次跨结点的指针跳转，结点内是连续数组上的二分查找</li>
+ * <li>范围查询与顺序遍历沿着叶子链表顺序扫描数组，不需要回溯父结点</li>
+ * </ul>
+ * 除根结点外，每个结点至少有 order/2 个键值；插入溢出时分裂，删除不足时向兄弟借或与兄弟合并。
+ * <p>
+ * 内部结点的keys[i]是children[i+1]子树的下界：children[i]中的键值都小于keys[i]，children[i+1]中的键值都不小于keys[i]。
+ */
+public class BPlusTree<T extends Comparable> implements Iterable<T> {
+
+    /**
+     * 默认阶数：一个结点最多32个键值
+     */
+    public static final int DEFAULT_ORDER = 32;
+
+    private final int order; // 结点最多的键值数
+    private final int minKeys; // 非根结点最少的键值数
+
+    private Node root;
+    private Leaf first; // 最左边的叶子
+    private Leaf last; // 最右边的叶子
+    private int size;
+    private int modCount;
+
+    // 分裂时向上传递的分隔键
+    private Object splitKey;
+
+    public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * @param order 阶数，即一个结点最多的键值数，至少为3；取值使一个结点的键值数组大约占一到几个缓存行
+     */
+    public BPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("阶数至少为3: " + order);
+        }
+        this.order = order;
+        this.minKeys = order / 2;
+        clear();
+    }
+
+    public int order() {
+        return order;
+    }
+
+    /**
+     * keys[0..n)中第一个大于key的位置
+     */
+    @SuppressWarnings("unchecked")
+    private static int upperBound(Object[] keys, int n, Object key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (((Comparable) keys[mid]).compareTo(key) <= 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * keys[0..n)中第一个不小于key的位置
+     */
+    @SuppressWarnings("unchecked")
+    private static int lowerBound(Object[] keys, int n, Object key) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (((Comparable) keys[mid]).compareTo(key) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * 找到key所在(或应该在)的叶子
+     */
+    private Leaf findLeaf(T key) {
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            node = inner.children[upperBound(inner.keys, inner.n, key)];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * 查找键值
+     *
+     * @param key 键值
+     * @return 树中与key相等的键值，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T search(T key) {
+        Leaf leaf = findLeaf(key);
+        int i = lowerBound(leaf.keys, leaf.n, key);
+        if (i < leaf.n && key.compareTo(leaf.keys[i]) == 0) {
+            return (T) leaf.keys[i];
+        }
+        return null;
+    }
+
+    public boolean contains(T key) {
+        return search(key) != null;
+    }
+
+    /**
+     * 插入键值，键值已存在时覆盖
+     *
+     * @param key 键值
+     * @return 键值原来不存在时返回true
+     */
+    public boolean insert(T key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        int oldSize = size;
+        Node right = insert(root, key);
+        if (right != null) {
+            // 根结点分裂，树长高一层
+            Inner newRoot = new Inner(order);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = right;
+            newRoot.n = 1;
+            root = newRoot;
+        }
+        splitKey = null;
+        return size != oldSize;
+    }
+
+    /**
+     * 把key插入到以node为根的子树
+     *
+     * @return node分裂出来的右半部分，分隔键放在splitKey里；没有分裂时返回null
+     */
+    @SuppressWarnings("unchecked")
+    private Node insert(Node node, T key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int i = lowerBound(leaf.keys, leaf.n, key);
+            if (i < leaf.n && key.compareTo(leaf.keys[i]) == 0) {
+                leaf.keys[i] = key;
+                return null;
+            }
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.n - i);
+            leaf.keys[i] = key;
+            leaf.n++;
+            size++;
+            modCount++;
+            return leaf.n > order ? splitLeaf(leaf) : null;
+        }
+
+        Inner inner = (Inner) node;
+        int i = upperBound(inner.keys, inner.n, key);
+        Node right = insert(inner.children[i], key);
+        if (right == null) {
+            return null;
+        }
+        System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.n - i);
+        System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.n - i);
+        inner.keys[i] = splitKey;
+        inner.children[i + 1] = right;
+        inner.n++;
+        return inner.n > order ? splitInner(inner) : null;
+    }
+
+    /**
+     * 叶子分裂：后一半搬到新叶子，新叶子的第一个键值复制一份作为分隔键
+     */
+    private Leaf splitLeaf(Leaf leaf) {
+        int mid = (leaf.n + 1) / 2;
+        Leaf right = new Leaf(order);
+        right.n = leaf.n - mid;
+        System.arraycopy(leaf.keys, mid, right.keys, 0, right.n);
+        clearKeys(leaf.keys, mid, leaf.n);
+        leaf.n = mid;
+
+        right.next = leaf.next;
+        right.prev = leaf;
+        if (leaf.next != null)
+            leaf.next.prev = right;
+        else
+            last = right;
+        leaf.next = right;
+
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    /**
+     * 内部结点分裂：中间的键值移到父结点，左右各留一半
+     */
+    private Inner splitInner(Inner inner) {
+        int mid = inner.n / 2;
+        Inner right = new Inner(order);
+        right.n = inner.n - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.n);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.n + 1);
+        splitKey = inner.keys[mid];
+        clearKeys(inner.keys, mid, inner.n);
+        clearChildren(inner.children, mid + 1, inner.n + 1);
+        inner.n = mid;
+        return right;
+    }
+
+    /**
+     * 删除键值
+     *
+     * @param key 键值
+     * @return 键值存在并被删除时返回true
+     */
+    public boolean remove(T key) {
+        if (!remove(root, key)) {
+            return false;
+        }
+        // 根结点只剩一个孩子时，树降低一层
+        if (root instanceof Inner && root.n == 0) {
+            root = ((Inner) root).children[0];
+        }
+        return true;
+    }
+
+    private boolean remove(Node node, T key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int i = lowerBound(leaf.keys, leaf.n, key);
+            if (i == leaf.n || key.compareTo(leaf.keys[i]) != 0) {
+                return false;
+            }
+            System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.n - i - 1);
+            leaf.keys[--leaf.n] = null;
+            size--;
+            modCount++;
+            return true;
+        }
+
+        Inner inner = (Inner) node;
+        int i = upperBound(inner.keys, inner.n, key);
+        if (!remove(inner.children[i], key)) {
+            return false;
+        }
+        if (inner.children[i].n < minKeys) {
+            rebalance(inner, i);
+        }
+        return true;
+    }
+
+    /**
+     * 修正键值数不足的孩子parent.children[i]：先向左右兄弟借，都借不到就与兄弟合并
+     */
+    private void rebalance(Inner parent, int i) {
+        Node child = parent.children[i];
+        Node left = i > 0 ? parent.children[i - 1] : null;
+        Node right = i < parent.n ? parent.children[i + 1] : null;
+
+        if (left != null && left.n > minKeys) {
+            borrowFromLeft(parent, i, left, child);
+        } else if (right != null && right.n > minKeys) {
+            borrowFromRight(parent, i, child, right);
+        } else if (left != null) {
+            merge(parent, i - 1, left, child);
+        } else {
+            merge(parent, i, child, right);
+        }
+    }
+
+    private void borrowFromLeft(Inner parent, int i, Node left, Node child) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.n);
+        if (child instanceof Leaf) {
+            child.keys[0] = left.keys[left.n - 1];
+            parent.keys[i - 1] = child.keys[0];
+        } else {
+            Inner c = (Inner) child, l = (Inner) left;
+            System.arraycopy(c.children, 0, c.children, 1, c.n + 1);
+            c.keys[0] = parent.keys[i - 1];
+            c.children[0] = l.children[l.n];
+            l.children[l.n] = null;
+            parent.keys[i - 1] = l.keys[l.n - 1];
+        }
+        left.keys[--left.n] = null;
+        child.n++;
+    }
+
+    private void borrowFromRight(Inner parent, int i, Node child, Node right) {
+        if (child instanceof Leaf) {
+            child.keys[child.n] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.n - 1);
+            parent.keys[i] = right.keys[0];
+        } else {
+            Inner c = (Inner) child, r = (Inner) right;
+            c.keys[c.n] = parent.keys[i];
+            c.children[c.n + 1] = r.children[0];
+            parent.keys[i] = r.keys[0];
+            System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+            System.arraycopy(r.children, 1, r.children, 0, r.n);
+            r.children[r.n] = null;
+        }
+        right.keys[--right.n] = null;
+        child.n++;
+    }
+
+    /**
+     * 把parent.children[i+1](right)合并到parent.children[i](left)，并删除它们之间的分隔键
+     */
+    private void merge(Inner parent, int i, Node left, Node right) {
+        if (left instanceof Leaf) {
+            Leaf l = (Leaf) left, r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+            l.n += r.n;
+            l.next = r.next;
+            if (r.next != null)
+                r.next.prev = l;
+            else
+                last = l;
+        } else {
+            Inner l = (Inner) left, r = (Inner) right;
+            l.keys[l.n] = parent.keys[i];
+            System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+            System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+            l.n += r.n + 1;
+        }
+
+        System.arraycopy(parent.keys, i + 1, parent.keys, i, parent.n - i - 1);
+        System.arraycopy(parent.children, i + 2, parent.children, i + 1, parent.n - i - 1);
+        parent.n--;
+        parent.keys[parent.n] = null;
+        parent.children[parent.n + 1] = null;
+    }
+
+    private static void clearKeys(Object[] keys, int from, int to) {
+        for (int i = from; i < to; i++)
+            keys[i] = null;
+    }
+
+    private static void clearChildren(Node[] children, int from, int to) {
+        for (int i = from; i < to; i++)
+            children[i] = null;
+    }
+
+    /**
+     * 最小键值
+     *
+     * @return 最小键值，树为空时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T minimum() {
+        return first.n == 0 ? null : (T) first.keys[0];
+    }
+
+    /**
+     * 最大键值
+     *
+     * @return 最大键值，树为空时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T maximum() {
+        return last.n == 0 ? null : (T) last.keys[last.n - 1];
+    }
+
+    /**
+     * 大于key的最小键值
+     *
+     * @param key 键值
+     * @return 后继键值，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T successor(T key) {
+        Leaf leaf = findLeaf(key);
+        int i = upperBound(leaf.keys, leaf.n, key);
+        if (i == leaf.n) {
+            leaf = leaf.next;
+            i = 0;
+        }
+        return leaf == null ? null : (T) leaf.keys[i];
+    }
+
+    /**
+     * 小于key的最大键值
+     *
+     * @param key 键值
+     * @return 前驱键值，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T predecessor(T key) {
+        Leaf leaf = findLeaf(key);
+        int i = lowerBound(leaf.keys, leaf.n, key) - 1;
+        if (i < 0) {
+            leaf = leaf.prev;
+            if (leaf == null)
+                return null;
+            i = leaf.n - 1;
+        }
+        return (T) leaf.keys[i];
+    }
+
+    /**
+     * 按从小到大的顺序访问所有键值
+     *
+     * @param action 访问键值
+     */
+    @SuppressWarnings("unchecked")
+    public void inOrder(Consumer<? super T> action) {
+        for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.n; i++) {
+                action.accept((T) leaf.keys[i]);
+            }
+        }
+    }
+
+    public void inOrder() {
+        inOrder(key -> System.out.print(key + " "));
+    }
+
+    /**
+     * 树的高度，只有一个叶子时为1
+     *
+     * @return 高度
+     */
+    public int height() {
+        int height = 1;
+        for (Node node = root; node instanceof Inner; node = ((Inner) node).children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Leaf leaf = new Leaf(order);
+        root = leaf;
+        first = leaf;
+        last = leaf;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * 按层打印每个结点的键值
+     *
+     * @param out 输出目标
+     */
+    public void print(PrintStream out) {
+        List<Node> level = new ArrayList<>();
+        level.add(root);
+        while (!level.isEmpty()) {
+            List<Node> next = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            for (Node node : level) {
+                sb.append('[');
+                for (int i = 0; i < node.n; i++) {
+                    if (i > 0)
+                        sb.append(' ');
+                    sb.append(node.keys[i]);
+                }
+                sb.append("] ");
+                if (node instanceof Inner) {
+                    Inner inner = (Inner) node;
+                    for (int i = 0; i <= inner.n; i++)
+                        next.add(inner.children[i]);
+                }
+            }
+            out.println(sb);
+            level = next;
+        }
+    }
+
+    public void print() {
+        print(System.out);
+    }
+
+    /**
+     * 升序迭代器，沿叶子链表扫描
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new LeafIterator(first, 0, null);
+    }
+
+    /**
+     * 按从小到大的顺序返回[lo, hi]范围内的键值
+     *
+     * @param lo 下界(包含)
+     * @param hi 上界(包含)
+     * @return 迭代器
+     */
+    public Iterator<T> range(T lo, T hi) {
+        Leaf leaf = findLeaf(lo);
+        return new LeafIterator(leaf, lowerBound(leaf.keys, leaf.n, lo), hi);
+    }
+
+    private class LeafIterator implements Iterator<T> {
+        private Leaf leaf;
+        private int index;
+        private final T hi;
+        private final int expectedModCount = modCount;
+
+        LeafIterator(Leaf leaf, int index, T hi) {
+            this.leaf = leaf;
+            this.index = index;
+            this.hi = hi;
+            skipExhausted();
+        }
+
+        private void skipExhausted() {
+            while (leaf != null && index == leaf.n) {
+                leaf = leaf.next;
+                index = 0;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hasNext() {
+            return leaf != null && (hi == null || hi.compareTo(leaf.keys[index]) >= 0);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (!hasNext())
+                throw new NoSuchElementException();
+            T key = (T) leaf.keys[index++];
+            skipExhausted();
+            return key;
+        }
+    }
+
+    private abstract static class Node {
+        // 多留一个位置，插入溢出后再分裂
+        final Object[] keys;
+        int n;
+
+        Node(int order) {
+            keys = new Object[order + 1];
+        }
+    }
+
+    private static final class Inner extends Node {
+        final Node[] children;
+
+        Inner(int order) {
+            super(order);
+            children = new Node[order + 2];
+        }
+    }
+
+    private static final class Leaf extends Node {
+        Leaf prev;
+        Leaf next;
+
+        Leaf(int order) {
+            super(order);
+        }
+    }
+
+    public static void main(String[] args) {
+        BPlusTree<Integer> tree = new BPlusTree<>(3);
+
+        System.out.println("== 依次添加: 1 ~ 12 ");
+        for (int i = 1; i <= 12; i++) {
+            tree.insert(i);
+        }
+        System.out.println("== 树的详细信息(阶数3): ");
+        tree.print();
+
+        System.out.println("== 删除: 4 5 6 7 ");
+        for (int i = 4; i <= 7; i++) {
+            tree.remove(i);
+        }
+        tree.print();
+
+        System.out.println("== 最小值: " + tree.minimum() + ", 最大值: " + tree.maximum()
+                + ", successor(3)=" + tree.successor(3) + ", predecessor(8)=" + tree.predecessor(8));
+
+        System.out.print("== 范围[2, 10]: ");
+        Iterator<Integer> range = tree.range(2, 10);
+        while (range.hasNext()) {
+            System.out.print(range.next() + " ");
+        }
+        System.out.println();
+
+        BPlusTree<Integer> big = new BPlusTree<>();
+        for (int i = 0; i < 1000000; i++) {
+            big.insert(i);
+        }
+        System.out.println("== 100万个键值(阶数" + big.order() + ")的高度: " + big.height());
+    }
+}
@@ -0,0 +1,625 @@
+package data_structure.tree;
+
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 键值对版本的红黑树，结点直接保存value，不需要再包装一层对象
+ * <p>
+ * 与 BSTree 的区别：
+ * <ul>
+ * <li>比较器可插拔：构造时传入 Comparator，为null时按键的自然顺序比较</li>
+ * <li>自然顺序下第一次插入时识别键的类型，Integer/Long/String 直接比较，避免 compareTo 的接口调用</li>
+ * <li>put/computeIfAbsent/merge 只下降一次：查找时记住挂载位置，找不到就直接挂上新结点</li>
+ * </ul>
+ */
+public class BSTMap<K, V> {
+
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
+
+    // 键的比较方式，自然顺序下在第一次插入时确定
+    private static final int KIND_UNKNOWN = 0;
+    private static final int KIND_COMPARATOR = 1;
+    private static final int KIND_COMPARABLE = 2;
+    private static final int KIND_INTEGER = 3;
+    private static final int KIND_LONG = 4;
+    private static final int KIND_STRING = 5;
+
+    private final Comparator<? super K> comparator;
+    private int keyKind;
+
+    private Entry<K, V> root; // 根结点
+    private int size;
+    private int modCount; // 结构修改次数
+
+    /**
+     * 按键的自然顺序排序
+     */
+    public BSTMap() {
+        this(null);
+    }
+
+    /**
+     * @param comparator 键的比较器，为null时按键的自然顺序排序
+     */
+    public BSTMap(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+        this.keyKind = comparator == null ? KIND_UNKNOWN : KIND_COMPARATOR;
+    }
+
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    /**
+     * 第一次插入时根据键的类型选择比较方式
+     */
+    private void detectKeyKind(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Class<?> type = key.getClass();
+        if (type == Integer.class) {
+            keyKind = KIND_INTEGER;
+        } else if (type == Long.class) {
+            keyKind = KIND_LONG;
+        } else if (type == String.class) {
+            keyKind = KIND_STRING;
+        } else {
+            keyKind = KIND_COMPARABLE;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, Object b) {
+        switch (keyKind) {
+            case KIND_INTEGER:
+                return Integer.compare((Integer) a, (Integer) b);
+            case KIND_LONG:
+                return Long.compare((Long) a, (Long) b);
+            case KIND_STRING:
+                return ((String) a).compareTo((String) b);
+            case KIND_COMPARATOR:
+                return comparator.compare((K) a, (K) b);
+            default:
+                return ((Comparable<Object>) a).compareTo(b);
+        }
+    }
+
+    /**
+     * 查找键为key的结点
+     *
+     * @param key 键
+     * @return 结点，不存在时返回null
+     */
+    private Entry<K, V> getEntry(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Entry<K, V> node = root;
+        while (node != null) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0)
+                node = node.left;
+            else if (cmp > 0)
+                node = node.right;
+            else
+                return node;
+        }
+        return null;
+    }
+
+    public V get(Object key) {
+        Entry<K, V> node = getEntry(key);
+        return node == null ? null : node.value;
+    }
+
+    public V getOrDefault(Object key, V defaultValue) {
+        Entry<K, V> node = getEntry(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    public boolean containsKey(Object key) {
+        return getEntry(key) != null;
+    }
+
+    /**
+     * 插入或覆盖键值对
+     *
+     * @param key   键
+     * @param value 值
+     * @return 原来的值，键原来不存在时返回null
+     */
+    public V put(K key, V value) {
+        if (root == null) {
+            addRoot(key, value);
+            return null;
+        }
+
+        Entry<K, V> node = root;
+        while (true) {
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                if (node.left == null) {
+                    node.left = new Entry<>(key, value, node);
+                    inserted(node.left);
+                    return null;
+                }
+                node = node.left;
+            } else if (cmp > 0) {
+                if (node.right == null) {
+                    node.right = new Entry<>(key, value, node);
+                    inserted(node.right);
+                    return null;
+                }
+                node = node.right;
+            } else {
+                V old = node.value;
+                node.value = value;
+                return old;
+            }
+        }
+    }
+
+    /**
+     * 键不存在(或对应的值为null)时用mappingFunction计算值并插入，只下降一次
+     *
+     * @param key             键
+     * @param mappingFunction 计算值的函数，返回null时不插入
+     * @return 键对应的(新)值
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (root == null) {
+            int mc = modCount;
+            V value = mappingFunction.apply(key);
+            // 函数内修改了映射时，addRoot 会把它插入的条目覆盖掉
+            if (mc != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (value != null) {
+                addRoot(key, value);
+            }
+            return value;
+        }
+
+        Entry<K, V> parent = root;
+        int cmp;
+        while (true) {
+            cmp = compare(key, parent.key);
+            Entry<K, V> next = cmp < 0 ? parent.left : cmp > 0 ? parent.right : null;
+            if (cmp == 0) {
+                if (parent.value == null) {
+                    int mc = modCount;
+                    V value = mappingFunction.apply(key);
+                    if (mc != modCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    parent.value = value;
+                }
+                return parent.value;
+            }
+            if (next == null) {
+                break;
+            }
+            parent = next;
+        }
+
+        int mc = modCount;
+        V value = mappingFunction.apply(key);
+        if (mc != modCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value != null) {
+            attach(parent, cmp < 0, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 键不存在时插入value，存在时用remappingFunction合并新旧值，只下降一次
+     *
+     * @param key               键
+     * @param value             要合并的值，不能为null
+     * @param remappingFunction 合并函数，返回null时删除该键
+     * @return 键对应的新值，被删除时返回null
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        if (root == null) {
+            addRoot(key, value);
+            return value;
+        }
+
+        Entry<K, V> parent = root;
+        int cmp;
+        while (true) {
+            cmp = compare(key, parent.key);
+            Entry<K, V> next = cmp < 0 ? parent.left : cmp > 0 ? parent.right : null;
+            if (cmp == 0) {
+                if (parent.value == null) {
+                    parent.value = value;
+                    return value;
+                }
+                int mc = modCount;
+                V newValue = remappingFunction.apply(parent.value, value);
+                if (mc != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (newValue == null) {
+                    deleteEntry(parent);
+                } else {
+                    parent.value = newValue;
+                }
+                return newValue;
+            }
+            if (next == null) {
+                break;
+            }
+            parent = next;
+        }
+        attach(parent, cmp < 0, key, value);
+        return value;
+    }
+
+    /**
+     * 删除键值对
+     *
+     * @param key 键
+     * @return 被删除的值，键不存在时返回null
+     */
+    public V remove(Object key) {
+        Entry<K, V> node = getEntry(key);
+        if (node == null) {
+            return null;
+        }
+        V old = node.value;
+        deleteEntry(node);
+        return old;
+    }
+
+    private void addRoot(K key, V value) {
+        if (keyKind == KIND_UNKNOWN) {
+            detectKeyKind(key);
+        }
+        // 让比较器或compareTo检查键的合法性(如null)
+        compare(key, key);
+        root = new Entry<>(key, value, null);
+        root.color = BLACK;
+        size = 1;
+        modCount++;
+    }
+
+    private void attach(Entry<K, V> parent, boolean isLeft, K key, V value) {
+        Entry<K, V> node = new Entry<>(key, value, parent);
+        if (isLeft)
+            parent.left = node;
+        else
+            parent.right = node;
+        inserted(node);
+    }
+
+    private void inserted(Entry<K, V> node) {
+        size++;
+        modCount++;
+        insertFixup(node);
+    }
+
+    /**
+     * 摘下结点，有两个孩子时先把后继的键值搬过来，改为摘下后继
+     */
+    private void deleteEntry(Entry<K, V> z) {
+        Entry<K, V> y = z.left == null || z.right == null ? z : successor(z);
+        Entry<K, V> x = y.left != null ? y.left : y.right;
+
+        if (x != null) {
+            x.parent = y.parent;
+        }
+        if (y.parent == null)
+            root = x;
+        else if (y == y.parent.left)
+            y.parent.left = x;
+        else
+            y.parent.right = x;
+
+        if (y != z) {
+            z.key = y.key;
+            z.value = y.value;
+        }
+
+        if (y.color == BLACK)
+            removeFixup(x, y.parent);
+
+        size--;
+        modCount++;
+    }
+
+    private static <K, V> Entry<K, V> successor(Entry<K, V> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null)
+                node = node.left;
+            return node;
+        }
+        Entry<K, V> parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private Entry<K, V> firstEntry() {
+        Entry<K, V> node = root;
+        if (node != null)
+            while (node.left != null)
+                node = node.left;
+        return node;
+    }
+
+    private Entry<K, V> lastEntry() {
+        Entry<K, V> node = root;
+        if (node != null)
+            while (node.right != null)
+                node = node.right;
+        return node;
+    }
+
+    /**
+     * 最小的键
+     *
+     * @return 最小的键
+     * @throws NoSuchElementException 为空时
+     */
+    public K firstKey() {
+        Entry<K, V> node = firstEntry();
+        if (node == null)
+            throw new NoSuchElementException();
+        return node.key;
+    }
+
+    /**
+     * 最大的键
+     *
+     * @return 最大的键
+     * @throws NoSuchElementException 为空时
+     */
+    public K lastKey() {
+        Entry<K, V> node = lastEntry();
+        if (node == null)
+            throw new NoSuchElementException();
+        return node.key;
+    }
+
+    /**
+     * 按键从小到大遍历
+     *
+     * @param action 访问键值对
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        int mc = modCount;
+        for (Entry<K, V> node = firstEntry(); node != null; node = successor(node)) {
+            action.accept(node.key, node.value);
+            if (mc != modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+        modCount++;
+    }
+
+    private static boolean isRed(Entry<?, ?> node) {
+        return node != null && node.color == RED;
+    }
+
+    /**
+     * 用child替换node在其父结点中的位置
+     */
+    private void replaceChild(Entry<K, V> node, Entry<K, V> child) {
+        child.parent = node.parent;
+        if (node.parent == null)
+            root = child;
+        else if (node.parent.left == node)
+            node.parent.left = child;
+        else
+            node.parent.right = child;
+    }
+
+    private void leftRotate(Entry<K, V> x) {
+        Entry<K, V> y = x.right;
+        x.right = y.left;
+        if (y.left != null)
+            y.left.parent = x;
+        replaceChild(x, y);
+        y.left = x;
+        x.parent = y;
+    }
+
+    private void rightRotate(Entry<K, V> y) {
+        Entry<K, V> x = y.left;
+        y.left = x.right;
+        if (x.right != null)
+            x.right.parent = y;
+        replaceChild(y, x);
+        x.right = y;
+        y.parent = x;
+    }
+
+    /**
+     * 红黑树插入修正，与 BSTree.insertFixup 相同
+     */
+    private void insertFixup(Entry<K, V> node) {
+        Entry<K, V> parent, gparent;
+
+        while ((parent = node.parent) != null && parent.color == RED) {
+            gparent = parent.parent;
+
+            if (parent == gparent.left) {
+                Entry<K, V> uncle = gparent.right;
+                if (isRed(uncle)) {
+                    uncle.color = BLACK;
+                    parent.color = BLACK;
+                    gparent.color = RED;
+                    node = gparent;
+                    continue;
+                }
+                if (parent.right == node) {
+                    leftRotate(parent);
+                    Entry<K, V> tmp = parent;
+                    parent = node;
+                    node = tmp;
+                }
+                parent.color = BLACK;
+                gparent.color = RED;
+                rightRotate(gparent);
+            } else {
+                Entry<K, V> uncle = gparent.left;
+                if (isRed(uncle)) {
+                    uncle.color = BLACK;
+                    parent.color = BLACK;
+                    gparent.color = RED;
+                    node = gparent;
+                    continue;
+                }
+                if (parent.left == node) {
+                    rightRotate(parent);
+                    Entry<K, V> tmp = parent;
+                    parent = node;
+                    node = tmp;
+                }
+                parent.color = BLACK;
+                gparent.color = RED;
+                leftRotate(gparent);
+            }
+        }
+
+        root.color = BLACK;
+    }
+
+    /**
+     * 红黑树删除修正，与 BSTree.removeFixup 相同
+     */
+    private void removeFixup(Entry<K, V> x, Entry<K, V> parent) {
+        Entry<K, V> other;
+
+        while (!isRed(x) && x != root) {
+            if (parent.left == x) {
+                other = parent.right;
+                if (isRed(other)) {
+                    other.color = BLACK;
+                    parent.color = RED;
+                    leftRotate(parent);
+                    other = parent.right;
+                }
+                if (!isRed(other.left) && !isRed(other.right)) {
+                    other.color = RED;
+                    x = parent;
+                    parent = x.parent;
+                } else {
+                    if (!isRed(other.right)) {
+                        other.left.color = BLACK;
+                        other.color = RED;
+                        rightRotate(other);
+                        other = parent.right;
+                    }
+                    other.color = parent.color;
+                    parent.color = BLACK;
+                    other.right.color = BLACK;
+                    leftRotate(parent);
+                    x = root;
+                    break;
+                }
+            } else {
+                other = parent.left;
+                if (isRed(other)) {
+                    other.color = BLACK;
+                    parent.color = RED;
+                    rightRotate(parent);
+                    other = parent.left;
+                }
+                if (!isRed(other.left) && !isRed(other.right)) {
+                    other.color = RED;
+                    x = parent;
+                    parent = x.parent;
+                } else {
+                    if (!isRed(other.left)) {
+                        other.right.color = BLACK;
+                        other.color = RED;
+                        leftRotate(other);
+                        other = parent.left;
+                    }
+                    other.color = parent.color;
+                    parent.color = BLACK;
+                    other.left.color = BLACK;
+                    rightRotate(parent);
+                    x = root;
+                    break;
+                }
+            }
+        }
+
+        if (x != null)
+            x.color = BLACK;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    private static final class Entry<K, V> {
+        K key;
+        V value;
+        Entry<K, V> left;
+        Entry<K, V> right;
+        Entry<K, V> parent;
+        boolean color = RED;
+
+        Entry(K key, V value, Entry<K, V> parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+        }
+    }
+
+    public static void main(String[] args) {
+        BSTMap<String, Integer> counts = new BSTMap<>();
+        for (String word : "the quick brown fox jumps over the lazy dog the end".split(" ")) {
+            counts.merge(word, 1, Integer::sum);
+        }
+        System.out.println("== 单词计数: " + counts);
+
+        BSTMap<Integer, StringBuilder> groups = new BSTMap<>(Comparator.reverseOrder());
+        for (int i = 1; i <= 10; i++) {
+            groups.computeIfAbsent(i % 3, k -> new StringBuilder()).append(i).append(' ');
+        }
+        System.out.println("== 按余数分组(倒序): " + groups);
+
+        System.out.println("== remove(\"the\")=" + counts.remove("the") + ", firstKey=" + counts.firstKey()
+                + ", lastKey=" + counts.lastKey() + ", size=" + counts.size());
+    }
+}
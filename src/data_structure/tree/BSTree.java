@@ -1,92 +1,255 @@
 package data_structure.tree;
 
+import data_structure.metrics.Counter;
+import data_structure.metrics.Histogram;
+import data_structure.metrics.Metrics;
+import data_structure.metrics.MetricsRegistry;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * BSTree是二叉树，它保护了二叉树的根节点mRoot；mRoot是BSTNode类型，而BSTNode是二叉查找树的节点，它是BSTree的内部类。BSTNode包含二叉查找树的几个基本信息：
  */
-public class BSTree<T extends Comparable> {
+public class BSTree<T extends Comparable> implements Iterable<T> {
+
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
 
     private BSTNode<T> root; // 根结点
+    private final boolean balanced; // 是否为自平衡(红黑树)模式
+    private int modCount; // 结构修改次数，迭代器据此快速失败
+
+    // 统计指标，默认不记录
+    private Counter comparisons = Counter.NOOP; // insert/search 的比较次数
+    private Histogram depth = Histogram.NOOP; // insert/search 每次下降的深度
+    private Histogram insertNanos = Histogram.NOOP;
+    private Histogram searchNanos = Histogram.NOOP;
+    private boolean timed; // 打开统计时才调用 System.nanoTime()
+
+    public BSTree() {
+        this(false);
+    }
 
     /**
-     * 前序遍历
+     * @param balanced true 表示自平衡模式：插入/删除后按红黑树规则旋转着色，无论键以什么顺序到达，树高都不超过 2log(n+1)
+     */
+    public BSTree(boolean balanced) {
+        this.balanced = balanced;
+    }
+
+    /**
+     * 接入统计指标，名字以 "bstree." 开头
      *
-     * @param tree 根节点
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
      */
-    private void preOrder(BSTNode<T> tree) {
-        if (tree != null) {
-            System.out.println(tree.key + " ");
-            preOrder(tree.left);
-            preOrder(tree.right);
-        }
+    public void setMetrics(Metrics metrics) {
+        setMetrics(metrics, "bstree");
     }
 
-    public void preOrder() {
-        preOrder(root);
+    /**
+     * 接入统计指标
+     * <p>
+     * 记录 insert/search(remove 中的查找也计入)的比较次数(prefix.comparisons)、下降深度(prefix.depth)和耗时(prefix.insert.nanos、prefix.search.nanos)，
+     * 并注册树高(prefix.height)和结点个数(prefix.size)两个读数，导出快照时按当前的树重新计算。
+     * <p>
+     * 下降深度只反映被访问过的路径，从来没有被查找的退化分支看不到，删除或 addAll 重建之后也还保留着旧的最大值；
+     * 判断树是否退化请看树高：明显超过 2log(size) 就是退化了。同一前缀接入多棵树时，读数取最后接入的那棵。
+     *
+     * @param metrics 指标注册表，传入 Metrics.NOOP 关闭统计
+     * @param prefix  指标名字的前缀，多棵树用同一个前缀时合并统计
+     */
+    public void setMetrics(Metrics metrics, String prefix) {
+        comparisons = metrics.counter(prefix + ".comparisons");
+        depth = metrics.histogram(prefix + ".depth");
+        insertNanos = metrics.histogram(prefix + ".insert.nanos");
+        searchNanos = metrics.histogram(prefix + ".search.nanos");
+        metrics.gauge(prefix + ".height", this::height);
+        metrics.gauge(prefix + ".size", this::size);
+        timed = metrics.isEnabled();
     }
 
     /**
-     * 中序遍历
+     * 记录一次下降经过的比较次数
+     */
+    private void descended(int steps) {
+        comparisons.add(steps);
+        depth.record(steps);
+    }
+
+    /**
+     * 是否为自平衡(红黑树)模式
      *
-     * @param tree
+     * @return 是否自平衡
      */
-    private void inOrder(BSTNode<T> tree) {
-        if (tree != null) {
-            inOrder(tree.left);
-            System.out.println(tree.key + " ");
-            inOrder(tree.right);
-        }
+    public boolean isBalanced() {
+        return balanced;
     }
 
-    public void inOrder() {
-        inOrder(root);
+    /**
+     * 遍历顺序
+     */
+    public enum TraversalOrder {
+        PRE_ORDER, IN_ORDER, POST_ORDER
     }
 
+    /**
+     * 借助父结点指针遍历二叉树，不用递归也不用栈，额外空间O(1)，退化的树也不会栈溢出
+     * <p>
+     * 根据上一步来自哪里判断当前结点所处的阶段：
+     * 从父结点下来时访问前序，从左子树回来时访问中序，从右子树回来时访问后序。
+     *
+     * @param order   遍历顺序
+     * @param visitor 访问结点，返回false时提前结束遍历
+     * @return 是否完整遍历了整棵树
+     */
+    private boolean walk(TraversalOrder order, Predicate<BSTNode<T>> visitor) {
+        BSTNode<T> node = root;
+        BSTNode<T> prev = null;
+
+        while (node != null) {
+            BSTNode<T> next;
+            if (prev == node.parent) { // 从父结点下来
+                if (order == TraversalOrder.PRE_ORDER && !visitor.test(node))
+                    return false;
+                if (node.left != null) {
+                    next = node.left;
+                } else {
+                    if (order == TraversalOrder.IN_ORDER && !visitor.test(node))
+                        return false;
+                    if (node.right != null) {
+                        next = node.right;
+                    } else {
+                        if (order == TraversalOrder.POST_ORDER && !visitor.test(node))
+                            return false;
+                        next = node.parent;
+                    }
+                }
+            } else if (prev == node.left) { // 从左子树回来
+                if (order == TraversalOrder.IN_ORDER && !visitor.test(node))
+                    return false;
+                if (node.right != null) {
+                    next = node.right;
+                } else {
+                    if (order == TraversalOrder.POST_ORDER && !visitor.test(node))
+                        return false;
+                    next = node.parent;
+                }
+            } else { // 从右子树回来
+                if (order == TraversalOrder.POST_ORDER && !visitor.test(node))
+                    return false;
+                next = node.parent;
+            }
+            prev = node;
+            node = next;
+        }
+        return true;
+    }
 
     /**
-     * 后序遍历
+     * 树高：从根到最深叶子的结点个数，空树为0
+     * <p>
+     * 与 walk 一样借助父结点指针遍历，退化成链表的树也不会栈溢出，O(n)
      *
-     * @param tree
+     * @return 树高
      */
-    private void postOrder(BSTNode<T> tree) {
-        if (tree != null) {
-            postOrder(tree.left);
-            postOrder(tree.right);
-            System.out.println(tree.key + " ");
+    public int height() {
+        BSTNode<T> node = root;
+        BSTNode<T> prev = null;
+        int depth = 0;
+        int height = 0;
+
+        while (node != null) {
+            BSTNode<T> next;
+            if (prev == node.parent) { // 从父结点下来
+                depth++;
+                height = Math.max(height, depth);
+                next = node.left != null ? node.left : node.right != null ? node.right : node.parent;
+            } else if (prev == node.left && node.right != null) { // 从左子树回来，再进入右子树
+                next = node.right;
+            } else { // 两棵子树都访问过了
+                next = node.parent;
+            }
+            if (next == node.parent) {
+                depth--;
+            }
+            prev = node;
+            node = next;
         }
+        return height;
     }
 
-    public void postOrder() {
-        postOrder(root);
+    /**
+     * 按指定顺序遍历键值，visitor返回false时提前结束
+     *
+     * @param order   遍历顺序
+     * @param visitor 访问键值
+     * @return 是否完整遍历了整棵树
+     */
+    public boolean traverse(TraversalOrder order, Predicate<? super T> visitor) {
+        return walk(order, node -> visitor.test(node.key));
     }
 
+    /**
+     * 前序遍历
+     *
+     * @param action 访问键值
+     */
+    public void preOrder(Consumer<? super T> action) {
+        walk(TraversalOrder.PRE_ORDER, node -> {
+            action.accept(node.key);
+            return true;
+        });
+    }
+
+    public void preOrder() {
+        preOrder(key -> System.out.println(key + " "));
+    }
 
     /**
-     * (递归实现)查找"二叉树"中键值为key的节点
+     * 中序遍历
      *
-     * @param node 二叉树
-     * @param key  键值
-     * @return 键值为key的节点
+     * @param action 访问键值
      */
-    private BSTNode<T> search(BSTNode<T> node, T key) {
-        if (node == null) {
-            return null;
-        }
+    public void inOrder(Consumer<? super T> action) {
+        walk(TraversalOrder.IN_ORDER, node -> {
+            action.accept(node.key);
+            return true;
+        });
+    }
 
-        int cmp = key.compareTo(node.key);
+    public void inOrder() {
+        inOrder(key -> System.out.println(key + " "));
+    }
 
-        if (cmp < 0) {
-            return search(node.left, key);
-        } else if (cmp > 0) {
-            return search(node.right, key);
-        }
 
-        return node;
+    /**
+     * 后序遍历
+     *
+     * @param action 访问键值
+     */
+    public void postOrder(Consumer<? super T> action) {
+        walk(TraversalOrder.POST_ORDER, node -> {
+            action.accept(node.key);
+            return true;
+        });
     }
 
-    public BSTNode<T> search(T key) {
-        return search(root, key);
+    public void postOrder() {
+        postOrder(key -> System.out.println(key + " "));
     }
 
+
     /**
      * (非递归实现)查找"二叉树"中键值为key的节点
      *
@@ -95,24 +258,45 @@ public class BSTree<T extends Comparable> {
      * @return 键值为key的节点
      */
     private BSTNode<T> iterativeSearch(BSTNode<T> tree, T key) {
+        int steps = 0;
         while (tree != null) {
             int cmp = key.compareTo(tree.key);
+            steps++;
 
             if (cmp < 0) {
                 tree = tree.left;
             } else if (cmp > 0) {
                 tree = tree.right;
             } else {
-                return tree;
+                break;
             }
         }
-        return null;
+        descended(steps);
+        return tree;
     }
 
     public BSTNode<T> iterativeSearch(T key) {
         return iterativeSearch(root, key);
     }
 
+    /**
+     * 查找"二叉树"中键值为key的节点
+     * <p>
+     * 使用非递归实现，退化的树上也不会栈溢出
+     *
+     * @param key 键值
+     * @return 键值为key的节点
+     */
+    public BSTNode<T> search(T key) {
+        if (!timed) {
+            return iterativeSearch(root, key);
+        }
+        long start = System.nanoTime();
+        BSTNode<T> node = iterativeSearch(root, key);
+        searchNanos.record(System.nanoTime() - start);
+        return node;
+    }
+
     /**
      * 查找最大结点：返回tree为根结点的二叉树的最大结点。
      *
@@ -217,29 +401,44 @@ public class BSTree<T extends Comparable> {
      * @return 插入的节点
      */
     public BSTNode<T> insert(T key) {
+        if (!timed) {
+            return doInsert(key);
+        }
+        long start = System.nanoTime();
+        BSTNode<T> node = doInsert(key);
+        insertNanos.record(System.nanoTime() - start);
+        return node;
+    }
 
+    private BSTNode<T> doInsert(T key) {
         if (root == null) {
             root = new BSTNode<>(key, null, null, null);
+            root.color = BLACK;
+            modCount++;
             return root;
         }
 
         BSTNode<T> node = root;
+        int steps = 0;
         while (true) {
             int cmp = key.compareTo(node.key);
+            steps++;
 
             if (cmp < 0) { // 要插入的地方在左子树
                 if (node.left == null) {
-                    return new BSTNode<>(key, node, true);
+                    descended(steps);
+                    return inserted(new BSTNode<>(key, node, true));
                 }
                 node = node.left;
             } else if (cmp > 0) { // 要插入的地方在右子树
                 if (node.right == null) {
-                    return new BSTNode<>(key, node, false);
-
+                    descended(steps);
+                    return inserted(new BSTNode<>(key, node, false));
                 }
                 node = node.right;
             } else {
                 // 要插入的跟自身一致。
+                descended(steps);
                 node.key = key;
                 return node;
             }
@@ -247,6 +446,23 @@ public class BSTree<T extends Comparable> {
     }
 
 
+    /**
+     * 新结点挂到树上之后的处理：祖先结点的子树大小加一，自平衡模式下修正红黑树性质
+     *
+     * @param node 新插入的结点
+     * @return 新插入的结点
+     */
+    private BSTNode<T> inserted(BSTNode<T> node) {
+        for (BSTNode<T> p = node.parent; p != null; p = p.parent) {
+            p.size++;
+        }
+        modCount++;
+        if (balanced) {
+            insertFixup(node);
+        }
+        return node;
+    }
+
     /**
      * 删除结点(z)，并返回被删除的结点
      *
@@ -278,6 +494,16 @@ public class BSTree<T extends Comparable> {
         if (y != removeNode)
             removeNode.key = y.key;
 
+        // 真正摘下的是y，y的祖先(包括removeNode)的子树大小都减一；要在旋转之前完成
+        for (BSTNode<T> p = y.parent; p != null; p = p.parent) {
+            p.size--;
+        }
+
+        // 删除的是黑色结点时，经过x的路径少了一个黑色结点，需要修正
+        if (tree.balanced && y.color == BLACK)
+            tree.removeFixup(x, y.parent);
+
+        tree.modCount++;
         return y;
     }
 
@@ -290,62 +516,824 @@ public class BSTree<T extends Comparable> {
     public void remove(T key) {
         BSTNode<T> z, node;
 
-        if ((z = search(root, key)) != null)
+        if ((z = iterativeSearch(root, key)) != null)
             if ((node = remove(this, z)) != null)
                 node = null;
     }
 
 
+    private boolean isRed(BSTNode<T> node) {
+        return node != null && node.color == RED;
+    }
+
     /**
-     * 打印"二叉查找树"
+     * 用child替换node在其父结点中的位置
+     */
+    private void replaceChild(BSTNode<T> node, BSTNode<T> child) {
+        child.parent = node.parent;
+        if (node.parent == null)
+            root = child;
+        else if (node.parent.left == node)
+            node.parent.left = child;
+        else
+            node.parent.right = child;
+    }
+
+    /**
+     * 对结点(x)进行左旋
+     * <pre>
+     *      px                              px
+     *     /                               /
+     *    x                               y
+     *   /  \      --(左旋)-->            / \
+     *  lx   y                          x  ry
+     *     /   \                       /  \
+     *    ly   ry                     lx  ly
+     * </pre>
+     */
+    private void leftRotate(BSTNode<T> x) {
+        BSTNode<T> y = x.right;
+        x.setRight(y.left);
+        replaceChild(x, y);
+        y.setLeft(x);
+        y.size = x.size;
+        x.size = size(x.left) + size(x.right) + 1;
+    }
+
+    /**
+     * 对结点(y)进行右旋
+     * <pre>
+     *            py                               py
+     *           /                                /
+     *          y                                x
+     *         /  \      --(右旋)-->              /  \
+     *        x   ry                          lx   y
+     *       / \                                  / \
+     *      lx  rx                               rx  ry
+     * </pre>
+     */
+    private void rightRotate(BSTNode<T> y) {
+        BSTNode<T> x = y.left;
+        y.setLeft(x.right);
+        replaceChild(y, x);
+        x.setRight(y);
+        x.size = y.size;
+        y.size = size(y.left) + size(y.right) + 1;
+    }
+
+    /**
+     * 红黑树插入修正：新结点为红色，若其父结点也是红色则通过重新着色和旋转恢复红黑树性质
      *
-     * @param tree      二叉查找树
-     * @param key       节点的键值
-     * @param direction 0，表示该节点是根节点;
-     *                  -1，表示该节点是它的父结点的左孩子;
-     *                  1，表示该节点是它的父结点的右孩子。
+     * @param node 新插入的结点
      */
-    private void print(BSTNode<T> tree, T key, int direction) {
-        if (tree != null) {
+    private void insertFixup(BSTNode<T> node) {
+        BSTNode<T> parent, gparent;
+
+        // 父结点是红色时，祖父结点一定存在(根结点是黑色)
+        while ((parent = node.parent) != null && parent.color == RED) {
+            gparent = parent.parent;
+
+            if (parent == gparent.left) {
+                BSTNode<T> uncle = gparent.right;
+                // Case 1: 叔叔结点是红色，上移冲突
+                if (isRed(uncle)) {
+                    uncle.color = BLACK;
+                    parent.color = BLACK;
+                    gparent.color = RED;
+                    node = gparent;
+                    continue;
+                }
 
-            if (direction == 0)    // tree是根节点
-                System.out.printf("%2d is root\n", tree.key);
-            else                // tree是分支节点
-                System.out.printf("%2d is %2d's %6s child\n", tree.key, key, direction == 1 ? "right" : "left");
+                // Case 2: 叔叔是黑色，且当前结点是右孩子，转成Case 3
+                if (parent.right == node) {
+                    leftRotate(parent);
+                    BSTNode<T> tmp = parent;
+                    parent = node;
+                    node = tmp;
+                }
 
-            print(tree.left, tree.key, -1);
-            print(tree.right, tree.key, 1);
+                // Case 3: 叔叔是黑色，且当前结点是左孩子
+                parent.color = BLACK;
+                gparent.color = RED;
+                rightRotate(gparent);
+            } else {
+                BSTNode<T> uncle = gparent.left;
+                if (isRed(uncle)) {
+                    uncle.color = BLACK;
+                    parent.color = BLACK;
+                    gparent.color = RED;
+                    node = gparent;
+                    continue;
+                }
+
+                if (parent.left == node) {
+                    rightRotate(parent);
+                    BSTNode<T> tmp = parent;
+                    parent = node;
+                    node = tmp;
+                }
+
+                parent.color = BLACK;
+                gparent.color = RED;
+                leftRotate(gparent);
+            }
         }
+
+        root.color = BLACK;
     }
 
-    public void print() {
-        if (root != null)
-            print(root, root.key, 0);
-        else {
-            System.out.println("这是一颗空树!");
+    /**
+     * 红黑树删除修正：被删除的黑色结点由x顶替后，x所在的路径少了一个黑色结点
+     *
+     * @param x      顶替被删除结点的结点，可能为null
+     * @param parent x的父结点
+     */
+    private void removeFixup(BSTNode<T> x, BSTNode<T> parent) {
+        BSTNode<T> other;
+
+        while (!isRed(x) && x != root) {
+            if (parent.left == x) {
+                other = parent.right;
+                // Case 1: 兄弟是红色，转成兄弟是黑色的情况
+                if (isRed(other)) {
+                    other.color = BLACK;
+                    parent.color = RED;
+                    leftRotate(parent);
+                    other = parent.right;
+                }
+
+                if (!isRed(other.left) && !isRed(other.right)) {
+                    // Case 2: 兄弟是黑色，且兄弟的两个孩子都是黑色，缺失的黑色上移
+                    other.color = RED;
+                    x = parent;
+                    parent = x.parent;
+                } else {
+                    // Case 3: 兄弟是黑色，兄弟的左孩子红、右孩子黑，转成Case 4
+                    if (!isRed(other.right)) {
+                        other.left.color = BLACK;
+                        other.color = RED;
+                        rightRotate(other);
+                        other = parent.right;
+                    }
+                    // Case 4: 兄弟是黑色，兄弟的右孩子是红色
+                    other.color = parent.color;
+                    parent.color = BLACK;
+                    other.right.color = BLACK;
+                    leftRotate(parent);
+                    x = root;
+                    break;
+                }
+            } else {
+                other = parent.left;
+                if (isRed(other)) {
+                    other.color = BLACK;
+                    parent.color = RED;
+                    rightRotate(parent);
+                    other = parent.left;
+                }
+
+                if (!isRed(other.left) && !isRed(other.right)) {
+                    other.color = RED;
+                    x = parent;
+                    parent = x.parent;
+                } else {
+                    if (!isRed(other.left)) {
+                        other.right.color = BLACK;
+                        other.color = RED;
+                        leftRotate(other);
+                        other = parent.left;
+                    }
+                    other.color = parent.color;
+                    parent.color = BLACK;
+                    other.left.color = BLACK;
+                    rightRotate(parent);
+                    x = root;
+                    break;
+                }
+            }
         }
+
+        if (x != null)
+            x.color = BLACK;
     }
 
     /**
-     * 销毁二叉树
+     * 打印"二叉查找树"
+     * <p>
+     * 按前序输出每个结点与其父结点的关系
      *
-     * @param node 要删除的节点
+     * @param out 输出目标
+     */
+    public void print(PrintStream out) {
+        if (root == null) {
+            out.println("这是一颗空树!");
+            return;
+        }
+
+        walk(TraversalOrder.PRE_ORDER, node -> {
+            if (node.parent == null)    // node是根节点
+                out.printf("%2s is root\n", node.key);
+            else                        // node是分支节点
+                out.printf("%2s is %2s's %6s child\n", node.key, node.parent.key, node == node.parent.right ? "right" : "left");
+            return true;
+        });
+    }
+
+    public void print() {
+        print(System.out);
+    }
+
+    /**
+     * 销毁二叉树：逐个摘下叶子结点，断开结点之间的引用
+     *
+     * @param node 要删除的子树的根节点
      */
     private void destroy(BSTNode<T> node) {
         if (node == null)
             return;
 
-        if (node.left != null)
-            destroy(node.left);
-        if (node.right != null)
-            destroy(node.right);
-
-        node = null;
+        BSTNode<T> stop = node.parent;
+        while (node != stop) {
+            if (node.left != null) {
+                node = node.left;
+            } else if (node.right != null) {
+                node = node.right;
+            } else {
+                BSTNode<T> parent = node.parent;
+                if (parent != null) {
+                    if (parent.left == node)
+                        parent.left = null;
+                    else
+                        parent.right = null;
+                }
+                node.parent = null;
+                node = parent;
+            }
+        }
     }
 
     public void clear() {
         destroy(root);
         root = null;
+        modCount++;
+    }
+
+    /**
+     * 用严格递增的键值构造一棵完全平衡的树，O(n)
+     *
+     * @param keys 严格递增的键值
+     * @return 新的树
+     */
+    public static <T extends Comparable> BSTree<T> fromSorted(T[] keys) {
+        return fromSorted(Arrays.asList(keys).iterator(), keys.length);
+    }
+
+    /**
+     * 用严格递增的键值构造一棵完全平衡的树，O(n)
+     *
+     * @param keys 严格递增的键值
+     * @param n    键值个数
+     * @return 新的树
+     */
+    public static <T extends Comparable> BSTree<T> fromSorted(Iterator<? extends T> keys, int n) {
+        return fromSorted(keys, n, false);
+    }
+
+    /**
+     * 用严格递增的键值构造一棵完全平衡的树，O(n)
+     * <p>
+     * 按中序依次消费键值，每个结点只分配一次；自平衡模式下最底下不满的一层着红色，其余着黑色，得到合法的红黑树。
+     *
+     * @param keys     严格递增的键值，不是严格递增时抛出 IllegalArgumentException
+     * @param n        键值个数
+     * @param balanced 是否为自平衡模式
+     * @return 新的树
+     */
+    public static <T extends Comparable> BSTree<T> fromSorted(Iterator<? extends T> keys, int n, boolean balanced) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n: " + n);
+        }
+        BSTree<T> tree = new BSTree<>(balanced);
+        tree.buildFromSorted(keys, n);
+        return tree;
+    }
+
+    /**
+     * 批量插入
+     * <p>
+     * 输入先用 TimSort 排序：TimSort 会识别输入中已有的有序段，已排序或由少数有序段组成的输入接近线性时间。
+     * 插入的键值相对树很少时逐个插入；否则把树的中序序列与输入归并，再按 fromSorted 的方式重建整棵树，
+     * 结果总是完全平衡的。重建后原来的结点不再属于这棵树。
+     *
+     * @param keys 要插入的键值
+     */
+    public void addAll(Collection<? extends T> keys) {
+        Object[] add = keys.toArray();
+        if (add.length == 0) {
+            return;
+        }
+
+        // 逐个插入的代价约为 m*log(n)，重建的代价为 n+m
+        int size = size();
+        int height = 32 - Integer.numberOfLeadingZeros(size);
+        if ((long) add.length * height < size) {
+            for (Object key : add) {
+                insert((T) key);
+            }
+            return;
+        }
+
+        if (!isStrictlyAscending(add)) {
+            Arrays.sort(add);
+            add = distinct(add);
+        }
+
+        int n;
+        Object[] merged;
+        if (root == null) {
+            merged = add;
+            n = add.length;
+        } else {
+            // 归并两个有序序列，键值相同时取新插入的(与 insert 的覆盖行为一致)
+            merged = new Object[size + add.length];
+            n = 0;
+            int j = 0;
+            for (BSTNode<T> node = minimum(root); node != null; node = successor(node)) {
+                while (j < add.length && ((T) add[j]).compareTo(node.key) < 0) {
+                    merged[n++] = add[j++];
+                }
+                if (j < add.length && ((T) add[j]).compareTo(node.key) == 0) {
+                    merged[n++] = add[j++];
+                } else {
+                    merged[n++] = node.key;
+                }
+            }
+            while (j < add.length) {
+                merged[n++] = add[j++];
+            }
+        }
+
+        buildFromSorted((Iterator<T>) (Iterator<?>) Arrays.asList(merged).subList(0, n).iterator(), n);
+    }
+
+    private static boolean isStrictlyAscending(Object[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (((Comparable) keys[i - 1]).compareTo(keys[i]) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 去掉已排序数组中的重复键值，相同的键值保留最后一个
+     */
+    private static Object[] distinct(Object[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i + 1 < sorted.length && ((Comparable) sorted[i]).compareTo(sorted[i + 1]) == 0) {
+                continue;
+            }
+            sorted[n++] = sorted[i];
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    /**
+     * 用严格递增的n个键值替换整棵树
+     */
+    private void buildFromSorted(Iterator<? extends T> keys, int n) {
+        root = buildFromSorted(0, 0, n - 1, computeRedLevel(n), new AscendingIterator<>(keys));
+        modCount++;
+    }
+
+    /**
+     * 递归地构造[lo, hi]区间的子树：先构造左子树，再取当前键值，最后构造右子树，递归深度为log(n)
+     *
+     * @param level    当前层数，根为0
+     * @param lo       区间的第一个下标
+     * @param hi       区间的最后一个下标
+     * @param redLevel 着红色的层数
+     * @param keys     按中序消费的键值
+     * @return 子树的根结点
+     */
+    private BSTNode<T> buildFromSorted(int level, int lo, int hi, int redLevel, Iterator<? extends T> keys) {
+        if (hi < lo)
+            return null;
+
+        int mid = (lo + hi) >>> 1;
+
+        BSTNode<T> left = null;
+        if (lo < mid)
+            left = buildFromSorted(level + 1, lo, mid - 1, redLevel, keys);
+
+        BSTNode<T> middle = new BSTNode<>(keys.next(), null, left, null);
+        middle.color = level == redLevel ? RED : BLACK;
+
+        if (mid < hi)
+            middle.setRight(buildFromSorted(level + 1, mid + 1, hi, redLevel, keys));
+
+        middle.size = hi - lo + 1;
+
+        return middle;
+    }
+
+    /**
+     * 完全平衡的树中，只有最底下一层可能不满，把这一层着红色就能让所有路径上的黑色结点数相同
+     *
+     * @param size 结点个数
+     * @return 着红色的层数
+     */
+    private static int computeRedLevel(int size) {
+        int level = 0;
+        for (int m = size - 1; m >= 0; m = m / 2 - 1)
+            level++;
+        return level;
+    }
+
+    /**
+     * 检查键值严格递增的迭代器
+     */
+    private static final class AscendingIterator<T extends Comparable> implements Iterator<T> {
+        private final Iterator<? extends T> it;
+        private T last;
+
+        AscendingIterator(Iterator<? extends T> it) {
+            this.it = it;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public T next() {
+            T key = it.next();
+            if (last != null && last.compareTo(key) >= 0) {
+                throw new IllegalArgumentException("键值不是严格递增的: " + last + ", " + key);
+            }
+            last = key;
+            return key;
+        }
+    }
+
+    /**
+     * 生成只读快照：按中序取出全部键值，以 Eytzinger 顺序存入数组
+     * <p>
+     * 快照与树互不影响，之后对树的修改不会反映到快照上
+     *
+     * @return 只读快照
+     */
+    public FrozenBSTree<T> freeze() {
+        Object[] sorted = new Object[size()];
+        int i = 0;
+        for (BSTNode<T> node = minimum(root); node != null; node = successor(node)) {
+            sorted[i++] = node.key;
+        }
+        return new FrozenBSTree<>(sorted, i);
+    }
+
+    /**
+     * 返回结点个数
+     *
+     * @return 结点个数
+     */
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * 以node为根的子树的结点个数
+     */
+    private int size(BSTNode<T> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * 返回小于key的键值个数，也就是key在排序后的位置(从0开始)，O(log n)
+     *
+     * @param key 键值，不要求在树中
+     * @return 小于key的键值个数
+     */
+    public int rank(T key) {
+        return rank(key, false);
+    }
+
+    /**
+     * 返回小于(inclusive为true时为小于等于)key的键值个数
+     */
+    private int rank(T key, boolean inclusive) {
+        int rank = 0;
+        BSTNode<T> node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left) + (inclusive ? 1 : 0);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 返回第k小的键值(从0开始)，O(log n)
+     *
+     * @param k 位置
+     * @return 第k小的键值
+     */
+    public T select(int k) {
+        if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException("k: " + k + ", size: " + size());
+        }
+        BSTNode<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (k < leftSize) {
+                node = node.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.key;
+            }
+        }
+    }
+
+    /**
+     * 返回在[lo, hi]区间内的键值个数，O(log n)
+     *
+     * @param lo 下界(包含)
+     * @param hi 上界(包含)
+     * @return 键值个数
+     */
+    public int countInRange(T lo, T hi) {
+        if (lo.compareTo(hi) > 0) {
+            return 0;
+        }
+        return rank(hi, true) - rank(lo, false);
+    }
+
+    /**
+     * 按从小到大的顺序惰性遍历[lo, hi]区间内的键值：定位起点O(log n)，之后每一步沿后继走
+     *
+     * @param lo 下界(包含)
+     * @param hi 上界(包含)
+     * @return 迭代器
+     */
+    public Iterator<T> range(T lo, T hi) {
+        return new RangeIterator(ceilingNode(lo), hi);
+    }
+
+    /**
+     * 查找键值不小于key的最小结点
+     *
+     * @param key 键值
+     * @return 结点，不存在时返回null
+     */
+    private BSTNode<T> ceilingNode(T key) {
+        BSTNode<T> node = root;
+        BSTNode<T> ceiling = null;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0) {
+                ceiling = node;
+                node = node.left;
+            } else if (cmp > 0) {
+                node = node.right;
+            } else {
+                return node;
+            }
+        }
+        return ceiling;
+    }
+
+    private class RangeIterator implements Iterator<T> {
+        BSTNode<T> next;
+        final T hi;
+        int expectedModCount = modCount;
+
+        RangeIterator(BSTNode<T> first, T hi) {
+            this.hi = hi;
+            this.next = first != null && first.key.compareTo(hi) <= 0 ? first : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            BSTNode<T> e = next;
+            next = successor(e);
+            if (next != null && next.key.compareTo(hi) > 0) {
+                next = null;
+            }
+            return e.key;
+        }
+    }
+
+    /**
+     * 按中序(从小到大)遍历键值的迭代器，借助父结点指针查找后继，不需要额外的栈
+     *
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * 按中序遍历键值的 Spliterator，拆分时把左侧子树交给新的 Spliterator
+     *
+     * @return Spliterator
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new KeySpliterator(null, null, 0, -1, 0);
+    }
+
+    /**
+     * 按从小到大的顺序返回键值的顺序流
+     *
+     * @return 顺序流
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * 按从小到大的顺序返回键值的并行流，按子树拆分后交给 fork-join 线程池
+     *
+     * @return 并行流
+     */
+    public Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private class KeyIterator implements Iterator<T> {
+        BSTNode<T> next = minimum(root);
+        BSTNode<T> lastReturned;
+        int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            lastReturned = next;
+            next = successor(next);
+            return lastReturned.key;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            // 有两个孩子的结点被删除时，后继结点的键值会搬进它自己，下一个要访问的就是它
+            if (lastReturned.left != null && lastReturned.right != null) {
+                next = lastReturned;
+            }
+            BSTree.this.remove(BSTree.this, lastReturned);
+            expectedModCount = modCount;
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * 中序遍历[current, fence)区间的 Spliterator
+     * <p>
+     * 顶层的 Spliterator 从根结点拆分；拆出的左半部分以原来的拆分点为 fence，再次拆分时取 fence 的左孩子；
+     * 剩下的右半部分以拆分点为起点，再次拆分时取起点的右孩子。每次拆分把估计大小减半。
+     */
+    private final class KeySpliterator implements Spliterator<T> {
+        BSTNode<T> current; // 第一个要访问的结点，初始化之前为null
+        BSTNode<T> fence; // 第一个不访问的结点，null表示一直到最后
+        int side; // 0: 顶层; -1: 拆出的左半部分; 1: 剩下的右半部分
+        int est; // 估计大小，-1表示尚未初始化
+        int expectedModCount;
+
+        KeySpliterator(BSTNode<T> origin, BSTNode<T> fence, int side, int est, int expectedModCount) {
+            this.current = origin;
+            this.fence = fence;
+            this.side = side;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getEstimate() {
+            int s;
+            if ((s = est) < 0) {
+                expectedModCount = modCount;
+                current = minimum(root);
+                s = est = size();
+            }
+            return s;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (est < 0) {
+                getEstimate(); // 强制初始化
+            }
+            int d = side;
+            BSTNode<T> e = current, f = fence,
+                    s = ((e == null || e == f) ? null :   // 空
+                            (d == 0) ? root :              // 顶层
+                            (d > 0) ? e.right :            // 右半部分
+                            (d < 0 && f != null) ? f.left : // 左半部分
+                            null);
+            if (s != null && s != e && s != f && e.key.compareTo(s.key) < 0) { // e还没越过s
+                side = 1;
+                return new KeySpliterator(e, current = s, -1, est >>>= 1, expectedModCount);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (est < 0) {
+                getEstimate();
+            }
+            BSTNode<T> e = current;
+            if (e == null || e == fence) {
+                return false;
+            }
+            current = successor(e);
+            action.accept(e.key);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            if (action == null) {
+                throw new NullPointerException();
+            }
+            if (est < 0) {
+                getEstimate();
+            }
+            BSTNode<T> f = fence, e;
+            if ((e = current) != null && e != f) {
+                current = f; // 一次性耗尽
+                do {
+                    action.accept(e.key);
+                    e = successor(e);
+                } while (e != null && e != f);
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return getEstimate();
+        }
+
+        @Override
+        public int characteristics() {
+            return (side == 0 ? Spliterator.SIZED : 0) |
+                    Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.ORDERED;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            // 按键值的自然顺序排序
+            return null;
+        }
     }
 
     class BSTNode<T extends Comparable> {
@@ -354,6 +1342,8 @@ public class BSTree<T extends Comparable> {
         BSTNode<T> left;// 指向当前节点的左孩子
         BSTNode<T> right;  // 指向当前节点的右孩子
         BSTNode<T> parent; // 指向当前节点的父结点
+        int size = 1; // 以当前节点为根的子树的结点个数
+        boolean color; // 颜色，只在自平衡模式下使用，新结点为红色
 
         public BSTNode(T key, BSTNode<T> parent, boolean isLeft) {
             this.key = key;
@@ -418,7 +1408,61 @@ public class BSTree<T extends Comparable> {
         System.out.println("== 树的详细信息: ");
         bst.print();
 
+        // 自平衡模式：按升序插入也不会退化成链表
+        BSTree<Integer> rbt = new BSTree<>(true);
+        System.out.println("== 自平衡模式依次添加: 1 2 3 4 5 6 ");
+        for (int i = 1; i <= 6; i++) {
+            rbt.insert(i);
+        }
+        System.out.println("== 树的详细信息: ");
+        rbt.print();
+
+        System.out.println("== 删除节点: 2");
+        rbt.remove(2);
+        System.out.println("== 树的详细信息: ");
+        rbt.print();
+
+        System.out.println("== 中序遍历遇到 4 时停止: ");
+        rbt.traverse(TraversalOrder.IN_ORDER, key -> {
+            System.out.print(key + " ");
+            return key < 4;
+        });
+        System.out.println();
+
+        System.out.println("== 迭代器: ");
+        for (Integer key : rbt) {
+            System.out.print(key + " ");
+        }
+        System.out.println();
+
+        BSTree<Integer> big = new BSTree<>(true);
+        for (int i = 0; i < 100000; i++) {
+            big.insert(i);
+        }
+        System.out.println("== 并行流求和: " + big.parallelStream().mapToLong(Integer::longValue).sum());
 
+        System.out.println("== 由有序数组构造: 1 2 3 4 5 6 7 ");
+        BSTree<Integer> sorted = BSTree.fromSorted(new Integer[]{1, 2, 3, 4, 5, 6, 7});
+        sorted.print();
 
+        System.out.println("== rank(5)=" + sorted.rank(5) + ", select(2)=" + sorted.select(2)
+                + ", countInRange(2, 5)=" + sorted.countInRange(2, 5));
+        Iterator<Integer> range = sorted.range(3, 6);
+        while (range.hasNext()) {
+            System.out.print(range.next() + " ");
+        }
+        System.out.println();
+
+        System.out.println("== 统计指标: 升序插入 1000 个键，普通模式 vs 自平衡模式 ");
+        MetricsRegistry metrics = new MetricsRegistry();
+        BSTree<Integer> plain = new BSTree<>();
+        BSTree<Integer> balanced = new BSTree<>(true);
+        plain.setMetrics(metrics, "plain");
+        balanced.setMetrics(metrics, "balanced");
+        for (int i = 0; i < 1000; i++) {
+            plain.insert(i);
+            balanced.insert(i);
+        }
+        System.out.print(metrics.snapshot());
     }
 }
@@ -0,0 +1,167 @@
+package data_structure.tree;
+
+import java.util.NoSuchElementException;
+
+/**
+ * 只读的二叉查找树快照，结点按 Eytzinger(广度优先)顺序存放在数组中
+ * <p>
+ * 下标为k的结点的左孩子是2k，右孩子是2k+1，根结点的下标是1。查找时不需要读取指针，
+ * 前几层集中在数组开头，常驻缓存；每一层都紧挨在上一层之后，硬件预取能跟上查找的步伐。
+ * <p>
+ * 查找的循环里只有一个条件表达式 k = 2k + (a[k] &lt; key ? 1 : 0)，不会因为分支预测失败而停顿，
+ * 走到叶子之后再根据下标的二进制位还原出答案。
+ * <p>
+ * 快照创建之后不会改变，可以被任意多个线程同时读取。
+ * <p>
+ * 注意：数组里存放的是键值对象的引用，每次比较仍要访问一个装箱的键值对象，省掉的只是结点对象那一层；
+ * 键值对象散落在堆中、不在缓存里时，这一次访问就是缓存未命中，提速多少取决于键值对象的分布，不保证翻倍。
+ * 键值是 int/long 时请改用 IntBSTree/LongBSTree 的 freeze()，得到键值内联在基本类型数组中的
+ * FrozenIntBSTree/FrozenLongBSTree，查找过程中只访问一个连续的数组。
+ */
+public final class FrozenBSTree<T extends Comparable> {
+
+    // 下标从1开始，data[0]不使用
+    private final Object[] data;
+    private final int n;
+
+    /**
+     * @param sorted 严格递增的键值
+     * @param n      键值个数
+     */
+    FrozenBSTree(Object[] sorted, int n) {
+        this.n = n;
+        this.data = new Object[n + 1];
+        fill(sorted, 0, 1);
+    }
+
+    /**
+     * 按中序把有序数组填入以k为根的隐式子树，递归深度为log(n)
+     *
+     * @return 下一个要填入的有序数组下标
+     */
+    private int fill(Object[] sorted, int i, int k) {
+        if (k <= n) {
+            i = fill(sorted, i, 2 * k);
+            data[k] = sorted[i++];
+            i = fill(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * 第一个不小于key的结点下标
+     * <p>
+     * 查找路径上向右走记为1、向左走记为0；答案是最后一次向左走的结点，
+     * 去掉末尾连续的1和紧挨着的一个0即可得到它的下标
+     *
+     * @return 结点下标，0表示不存在
+     */
+    private int lowerBound(T key) {
+        int k = 1;
+        while (k <= n) {
+            k = 2 * k + (((T) data[k]).compareTo(key) < 0 ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /**
+     * 最后一个不大于key的结点下标：与 lowerBound 对称，答案是最后一次向右走的结点
+     *
+     * @return 结点下标，0表示不存在
+     */
+    private int floorIndex(T key) {
+        int k = 1;
+        while (k <= n) {
+            k = 2 * k + (((T) data[k]).compareTo(key) <= 0 ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(k) + 1);
+    }
+
+    /**
+     * 查找键值为key的键值
+     *
+     * @param key 键值
+     * @return 树中与key相等的键值，不存在时返回null
+     */
+    public T search(T key) {
+        int k = lowerBound(key);
+        return k != 0 && ((T) data[k]).compareTo(key) == 0 ? (T) data[k] : null;
+    }
+
+    public boolean contains(T key) {
+        return search(key) != null;
+    }
+
+    /**
+     * 不小于key的最小键值
+     *
+     * @param key 键值
+     * @return 键值，不存在时返回null
+     */
+    public T ceiling(T key) {
+        return (T) data[lowerBound(key)];
+    }
+
+    /**
+     * 不大于key的最大键值
+     *
+     * @param key 键值
+     * @return 键值，不存在时返回null
+     */
+    public T floor(T key) {
+        return (T) data[floorIndex(key)];
+    }
+
+    /**
+     * 最小键值：一直向左走
+     *
+     * @return 最小键值
+     */
+    public T minimum() {
+        if (n == 0) {
+            throw new NoSuchElementException();
+        }
+        int k = 1;
+        while (2 * k <= n) {
+            k = 2 * k;
+        }
+        return (T) data[k];
+    }
+
+    /**
+     * 最大键值：一直向右走
+     *
+     * @return 最大键值
+     */
+    public T maximum() {
+        if (n == 0) {
+            throw new NoSuchElementException();
+        }
+        int k = 1;
+        while (2 * k + 1 <= n) {
+            k = 2 * k + 1;
+        }
+        return (T) data[k];
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public static void main(String[] args) {
+        BSTree<Integer> tree = new BSTree<>();
+        for (int i = 1; i <= 10; i++) {
+            tree.insert(i * 10);
+        }
+        FrozenBSTree<Integer> frozen = tree.freeze();
+
+        System.out.println("contains(30)=" + frozen.contains(30) + ", contains(35)=" + frozen.contains(35));
+        System.out.println("ceiling(35)=" + frozen.ceiling(35) + ", floor(35)=" + frozen.floor(35));
+        System.out.println("ceiling(101)=" + frozen.ceiling(101) + ", floor(5)=" + frozen.floor(5));
+        System.out.println("minimum=" + frozen.minimum() + ", maximum=" + frozen.maximum());
+    }
+}
@@ -0,0 +1,97 @@
+package data_structure.tree;
+
+import java.util.NoSuchElementException;
+
+/**
+ * long 键值的只读快照，键值按 Eytzinger 顺序直接存放在 long[] 中
+ * <p>
+ * 与 FrozenBSTree 相同的布局和查找方式；键值内联在数组里，比较时不用再访问键值对象，
+ * 一个 64 字节的缓存行能装下相邻的 8 个结点。
+ */
+public final class FrozenLongBSTree {
+
+    // 下标从1开始，data[0]不使用
+    private final long[] data;
+    private final int n;
+
+    /**
+     * @param sorted 严格递增的键值
+     */
+    FrozenLongBSTree(long[] sorted) {
+        this.n = sorted.length;
+        this.data = new long[n + 1];
+        fill(sorted, 0, 1);
+    }
+
+    private int fill(long[] sorted, int i, int k) {
+        if (k <= n) {
+            i = fill(sorted, i, 2 * k);
+            data[k] = sorted[i++];
+            i = fill(sorted, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * 第一个不小于key的结点下标，0表示不存在
+     */
+    private int lowerBound(long key) {
+        int k = 1;
+        while (k <= n) {
+            k = 2 * k + (data[k] < key ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    /**
+     * 最后一个不大于key的结点下标，0表示不存在
+     */
+    private int floorIndex(long key) {
+        int k = 1;
+        while (k <= n) {
+            k = 2 * k + (data[k] <= key ? 1 : 0);
+        }
+        return k >>> (Integer.numberOfTrailingZeros(k) + 1);
+    }
+
+    public boolean contains(long key) {
+        int k = lowerBound(key);
+        return k != 0 && data[k] == key;
+    }
+
+    /**
+     * 不小于key的最小键值
+     *
+     * @param key 键值
+     * @return 键值
+     */
+    public long ceiling(long key) {
+        int k = lowerBound(key);
+        if (k == 0) {
+            throw new NoSuchElementException();
+        }
+        return data[k];
+    }
+
+    /**
+     * 不大于key的最大键值
+     *
+     * @param key 键值
+     * @return 键值
+     */
+    public long floor(long key) {
+        int k = floorIndex(key);
+        if (k == 0) {
+            throw new NoSuchElementException();
+        }
+        return data[k];
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+}
@@ -0,0 +1,586 @@
+package data_structure.tree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的并发有序集合(跳表)，提供与 BSTree 相同的操作：insert/search/remove/minimum/maximum/successor
+ * <p>
+ * 结构与 ConcurrentSkipListMap 相同：第0层是按键值排列的单链表，存放全部结点；上面各层是索引结点，
+ * 每个索引结点指向一个第0层结点和下一层的索引。所有指针都是 volatile 字段，用 AtomicReferenceFieldUpdater 做 CAS，
+ * 修改时不会像 AtomicMarkableReference 那样每次分配一个 Pair。
+ * <ul>
+ * <li>插入先用 CAS 挂到第0层(此时就已可见)，再随机决定要不要建索引、建几层</li>
+ * <li>删除用 CAS 在结点后面挂一个标记结点(marker)，挂上即逻辑删除：
+ * 之后结点的 next 指向标记结点，任何在它后面插入的 CAS 都会失败；再把结点连同标记结点一起从第0层摘掉</li>
+ * <li>任何线程在查找中遇到已删除的结点都会顺手把它摘掉，删除不会被某个停住的线程卡住</li>
+ * </ul>
+ * head 是 volatile 的最高层索引，自带层数；查找从当前的最高层开始，而不是从固定的最大层数开始，
+ * 元素少时不会白白走过一串空层。
+ * <p>
+ * 跳表的层数是随机的，期望的查找路径长度为 O(log n)，与键值到达的顺序无关。
+ */
+public class LockFreeSkipList<T extends Comparable> implements Iterable<T> {
+
+    private static final AtomicReferenceFieldUpdater<LockFreeSkipList, HeadIndex> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeSkipList.class, HeadIndex.class, "head");
+
+    // 最高层索引，它的node是第0层的表头(不存放键值)
+    private volatile HeadIndex<T> head = new HeadIndex<>(new Node<T>(null, null), null, null, 1);
+    private final LongAdder size = new LongAdder();
+
+    private boolean casHead(HeadIndex<T> expect, HeadIndex<T> update) {
+        return HEAD.compareAndSet(this, expect, update);
+    }
+
+    /**
+     * 沿索引找到第0层上最后一个小于key的结点，顺便摘掉指向已删除结点的索引
+     *
+     * @param key 键值
+     * @return 前驱结点，可能是表头
+     */
+    private Node<T> findPredecessor(T key) {
+        while (true) {
+            for (Index<T> q = head, r = q.right; ; ) {
+                if (r != null) {
+                    Node<T> n = r.node;
+                    if (n.isDeleted()) {
+                        if (!q.unlink(r)) {
+                            break; // q也变了，从头再来
+                        }
+                        r = q.right;
+                        continue;
+                    }
+                    if (key.compareTo(n.key) > 0) {
+                        q = r;
+                        r = r.right;
+                        continue;
+                    }
+                }
+                Index<T> d = q.down;
+                if (d == null) {
+                    return q.node;
+                }
+                q = d;
+                r = d.right;
+            }
+        }
+    }
+
+    /**
+     * 第0层上第一个不小于(strict为true时为大于)key的未删除结点，顺便摘掉路上已删除的结点
+     */
+    private Node<T> findNear(T key, boolean strict) {
+        while (true) {
+            for (Node<T> b = findPredecessor(key), n = b.next; ; ) {
+                if (n == null) {
+                    return null;
+                }
+                Node<T> f = n.next;
+                // b.next 变了、b已被删除、n已被删除，都要重新定位
+                if (n != b.next || n.isMarker()) {
+                    break;
+                }
+                if (f != null && f.isMarker()) {
+                    n.helpDelete(b, f);
+                    break;
+                }
+                int cmp = key.compareTo(n.key);
+                if (cmp < 0 || (cmp == 0 && !strict)) {
+                    return n;
+                }
+                b = n;
+                n = f;
+            }
+        }
+    }
+
+    /**
+     * 插入键值
+     *
+     * @param key 键值
+     * @return 键值原来不存在、插入成功时返回true
+     */
+    public boolean insert(T key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Node<T> z;
+        outer:
+        while (true) {
+            for (Node<T> b = findPredecessor(key), n = b.next; ; ) {
+                if (n != null) {
+                    Node<T> f = n.next;
+                    if (n != b.next || n.isMarker()) {
+                        break;
+                    }
+                    if (f != null && f.isMarker()) {
+                        n.helpDelete(b, f);
+                        break;
+                    }
+                    int cmp = key.compareTo(n.key);
+                    if (cmp > 0) {
+                        b = n;
+                        n = f;
+                        continue;
+                    }
+                    if (cmp == 0) {
+                        return false;
+                    }
+                }
+                // b已被删除时 b.next 是标记结点，CAS 必然失败
+                z = new Node<>(key, n);
+                if (!b.casNext(n, z)) {
+                    break;
+                }
+                break outer;
+            }
+        }
+        size.increment();
+        addIndex(z);
+        return true;
+    }
+
+    /**
+     * 以1/4的概率为新结点建索引，每多一层概率减半；超过当前最高层时只加高一层
+     */
+    @SuppressWarnings("unchecked")
+    private void addIndex(Node<T> z) {
+        int rnd = ThreadLocalRandom.current().nextInt();
+        if ((rnd & 0x80000001) != 0) {
+            return;
+        }
+        int level = 1;
+        while (((rnd >>>= 1) & 1) != 0) {
+            level++;
+        }
+
+        Index<T> idx = null;
+        HeadIndex<T> h = head;
+        int max = h.level;
+        if (level <= max) {
+            for (int i = 1; i <= level; i++) {
+                idx = new Index<>(z, idx, null);
+            }
+        } else {
+            level = max + 1;
+            Index<T>[] idxs = (Index<T>[]) new Index[level + 1];
+            for (int i = 1; i <= level; i++) {
+                idxs[i] = idx = new Index<>(z, idx, null);
+            }
+            while (true) {
+                h = head;
+                int oldLevel = h.level;
+                if (level <= oldLevel) {
+                    break; // 别的线程已经加高了
+                }
+                HeadIndex<T> newh = h;
+                for (int j = oldLevel + 1; j <= level; j++) {
+                    newh = new HeadIndex<>(h.node, newh, idxs[j], j);
+                }
+                if (casHead(h, newh)) {
+                    h = newh;
+                    // 最高一层已经随新的head挂好，剩下的从原来的最高层往下挂
+                    idx = idxs[level = oldLevel];
+                    break;
+                }
+            }
+        }
+
+        // 从insertionLevel层开始，逐层把索引挂到正确的位置
+        splice:
+        for (int insertionLevel = level; ; ) {
+            int j = h.level;
+            for (Index<T> q = h, r = q.right, t = idx; ; ) {
+                if (q == null || t == null) {
+                    break splice;
+                }
+                if (r != null) {
+                    Node<T> n = r.node;
+                    int cmp = z.key.compareTo(n.key);
+                    if (n.isDeleted()) {
+                        if (!q.unlink(r)) {
+                            break;
+                        }
+                        r = q.right;
+                        continue;
+                    }
+                    if (cmp > 0) {
+                        q = r;
+                        r = r.right;
+                        continue;
+                    }
+                }
+                if (j == insertionLevel) {
+                    if (!q.link(r, t)) {
+                        break; // 重新从head开始
+                    }
+                    if (t.node.isDeleted()) {
+                        // 新结点已经被并发删除，借助查找摘掉刚挂上的索引
+                        findNear(z.key, false);
+                        break splice;
+                    }
+                    if (--insertionLevel == 0) {
+                        break splice;
+                    }
+                }
+                if (--j >= insertionLevel && j < level) {
+                    t = t.down;
+                }
+                q = q.down;
+                r = q.right;
+            }
+        }
+    }
+
+    /**
+     * 删除键值
+     *
+     * @param key 键值
+     * @return 键值存在、并由本次调用删除时返回true
+     */
+    public boolean remove(T key) {
+        if (key == null) {
+            return false;
+        }
+        while (true) {
+            for (Node<T> b = findPredecessor(key), n = b.next; ; ) {
+                if (n == null) {
+                    return false;
+                }
+                Node<T> f = n.next;
+                if (n != b.next || n.isMarker()) {
+                    break;
+                }
+                if (f != null && f.isMarker()) {
+                    n.helpDelete(b, f);
+                    break;
+                }
+                int cmp = key.compareTo(n.key);
+                if (cmp < 0) {
+                    return false;
+                }
+                if (cmp > 0) {
+                    b = n;
+                    n = f;
+                    continue;
+                }
+                // 挂上标记结点成功的线程才是真正的删除者
+                if (!n.casNext(f, new Node<T>(f))) {
+                    break;
+                }
+                size.decrement();
+                if (!b.casNext(n, f)) {
+                    findNear(key, false); // 摘除失败，借助查找重试
+                } else {
+                    findPredecessor(key); // 摘掉索引
+                    if (head.right == null) {
+                        tryReduceLevel();
+                    }
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 最高三层都空了时降低一层。降低之后发现又有索引挂上来就恢复，最多损失一点性能，不会丢索引
+     */
+    @SuppressWarnings("unchecked")
+    private void tryReduceLevel() {
+        HeadIndex<T> h = head;
+        HeadIndex<T> d;
+        HeadIndex<T> e;
+        if (h.level > 3
+                && (d = (HeadIndex<T>) h.down) != null
+                && (e = (HeadIndex<T>) d.down) != null
+                && e.right == null && d.right == null && h.right == null
+                && casHead(h, d)
+                && h.right != null) {
+            casHead(d, h);
+        }
+    }
+
+    /**
+     * 查找键值为key的键值
+     *
+     * @param key 键值
+     * @return 集合中与key相等的键值，不存在时返回null
+     */
+    public T search(T key) {
+        if (key == null) {
+            return null;
+        }
+        Node<T> node = findNear(key, false);
+        return node != null && key.compareTo(node.key) == 0 ? node.key : null;
+    }
+
+    public boolean contains(T key) {
+        return search(key) != null;
+    }
+
+    /**
+     * 大于key的最小键值
+     *
+     * @param key 键值
+     * @return 后继键值，不存在时返回null
+     */
+    public T successor(T key) {
+        Node<T> node = findNear(key, true);
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * 第0层上第一个未删除的结点
+     */
+    private Node<T> findFirst() {
+        while (true) {
+            Node<T> b = head.node;
+            Node<T> n = b.next;
+            if (n == null) {
+                return null;
+            }
+            Node<T> f = n.next;
+            if (n != b.next) {
+                continue;
+            }
+            if (f != null && f.isMarker()) {
+                n.helpDelete(b, f);
+                continue;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * 最小键值
+     *
+     * @return 最小键值，集合为空时返回null
+     */
+    public T minimum() {
+        Node<T> node = findFirst();
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * 最大键值：每一层都尽量向右走，再沿第0层走到最后一个未删除的结点
+     *
+     * @return 最大键值，集合为空时返回null
+     */
+    public T maximum() {
+        restart:
+        while (true) {
+            Index<T> q = head;
+            while (true) {
+                Index<T> r = q.right;
+                if (r != null) {
+                    if (r.node.isDeleted()) {
+                        q.unlink(r);
+                        continue restart;
+                    }
+                    q = r;
+                } else if (q.down != null) {
+                    q = q.down;
+                } else {
+                    break;
+                }
+            }
+            for (Node<T> b = q.node, n = b.next; ; ) {
+                if (n == null) {
+                    // 读到 b.next 为null时b一定没有被删除(删除后 next 是标记结点)
+                    return b.key;
+                }
+                Node<T> f = n.next;
+                if (n != b.next || n.isMarker()) {
+                    continue restart;
+                }
+                if (f != null && f.isMarker()) {
+                    n.helpDelete(b, f);
+                    continue restart;
+                }
+                b = n;
+                n = f;
+            }
+        }
+    }
+
+    /**
+     * 元素个数，并发修改时只是一个近似值
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        return (int) Math.max(0, size.sum());
+    }
+
+    public boolean isEmpty() {
+        return findFirst() == null;
+    }
+
+    /**
+     * 按从小到大的顺序遍历第0层，弱一致：不抛出 ConcurrentModificationException，
+     * 遍历期间的并发修改可能看得到也可能看不到
+     *
+     * @return 迭代器
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            Node<T> next = findFirst();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                T key = next.key;
+                // 跳过标记结点与已删除的结点，不帮忙摘除
+                Node<T> n = next.next;
+                while (n != null && (n.isMarker() || n.isDeleted())) {
+                    n = n.next;
+                }
+                next = n;
+                return key;
+            }
+        };
+    }
+
+    /**
+     * 第0层结点。key为null的是表头或标记结点，标记结点的next指向自己所标记结点原来的后继
+     */
+    private static final class Node<T> {
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        final T key;
+        final boolean marker;
+        volatile Node<T> next;
+
+        Node(T key, Node<T> next) {
+            this.key = key;
+            this.next = next;
+            this.marker = false;
+        }
+
+        /**
+         * 标记结点
+         */
+        Node(Node<T> next) {
+            this.key = null;
+            this.next = next;
+            this.marker = true;
+        }
+
+        boolean casNext(Node<T> expect, Node<T> update) {
+            return NEXT.compareAndSet(this, expect, update);
+        }
+
+        boolean isMarker() {
+            return marker;
+        }
+
+        /**
+         * 后面挂着标记结点即已被删除
+         */
+        boolean isDeleted() {
+            Node<T> n = next;
+            return n != null && n.marker;
+        }
+
+        /**
+         * 帮忙把已删除的本结点连同标记结点f从b后面摘掉
+         */
+        void helpDelete(Node<T> b, Node<T> f) {
+            if (f == next && this == b.next) {
+                b.casNext(this, f.next);
+            }
+        }
+    }
+
+    /**
+     * 索引结点
+     */
+    private static class Index<T> {
+        private static final AtomicReferenceFieldUpdater<Index, Index> RIGHT =
+                AtomicReferenceFieldUpdater.newUpdater(Index.class, Index.class, "right");
+
+        final Node<T> node;
+        final Index<T> down;
+        volatile Index<T> right;
+
+        Index(Node<T> node, Index<T> down, Index<T> right) {
+            this.node = node;
+            this.down = down;
+            this.right = right;
+        }
+
+        boolean casRight(Index<T> expect, Index<T> update) {
+            return RIGHT.compareAndSet(this, expect, update);
+        }
+
+        /**
+         * 把newSucc插到本索引与succ之间，本索引的结点已被删除时失败
+         */
+        boolean link(Index<T> succ, Index<T> newSucc) {
+            newSucc.right = succ;
+            return !node.isDeleted() && casRight(succ, newSucc);
+        }
+
+        /**
+         * 摘掉右边的succ，本索引的结点已被删除时失败
+         */
+        boolean unlink(Index<T> succ) {
+            return !node.isDeleted() && casRight(succ, succ.right);
+        }
+    }
+
+    /**
+     * 每一层最左边的索引，记录层数
+     */
+    private static final class HeadIndex<T> extends Index<T> {
+        final int level;
+
+        HeadIndex(Node<T> node, Index<T> down, Index<T> right, int level) {
+            super(node, down, right);
+            this.level = level;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final LockFreeSkipList<Integer> set = new LockFreeSkipList<>();
+        final int threads = 4;
+        final int perThread = 50000;
+
+        // 每个线程插入自己的一段键值，再删除其中的偶数
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int base = t * perThread;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    set.insert(base + i);
+                }
+                for (int i = 0; i < perThread; i += 2) {
+                    set.remove(base + i);
+                }
+            });
+        }
+        for (Thread t : workers) {
+            t.start();
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+
+        System.out.printf("size=%d, min=%d, max=%d\n", set.size(), set.minimum(), set.maximum());
+        System.out.printf("search(101)=%s, search(100)=%s, successor(100)=%d\n",
+                set.search(101), set.search(100), set.successor(100));
+    }
+}
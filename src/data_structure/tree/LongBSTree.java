@@ -0,0 +1,205 @@
+package data_structure.tree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * long 键值的二叉查找树，结点存放在数组中
+ * <p>
+ * 每个结点占用 3 个 int 下标加 1 个 long 键值，共 20 字节；
+ * 而 BSTree&lt;Long&gt; 的每个结点是一个 BSTNode 对象(压缩指针下约 40 字节)加一个 Long 对象(16 字节)。
+ */
+public class LongBSTree extends ArrayBSTree {
+
+    private long[] keys;
+
+    public LongBSTree() {
+        super();
+        keys = new long[capacity()];
+    }
+
+    /**
+     * @param capacity 初始容量
+     */
+    public LongBSTree(int capacity) {
+        super(capacity);
+        keys = new long[capacity()];
+    }
+
+    @Override
+    protected void growKeys(int newCapacity) {
+        keys = Arrays.copyOf(keys, newCapacity);
+    }
+
+    @Override
+    protected void copyKey(int from, int to) {
+        keys[to] = keys[from];
+    }
+
+    /**
+     * 返回结点的键值
+     *
+     * @param node 结点
+     * @return 键值
+     */
+    public long key(int node) {
+        return keys[node];
+    }
+
+    /**
+     * 查找"二叉树"中键值为key的节点
+     *
+     * @param key 键值
+     * @return 结点，不存在时返回NIL
+     */
+    public int search(long key) {
+        int node = root;
+        while (node != NIL) {
+            long k = keys[node];
+            if (key < k) {
+                node = left[node];
+            } else if (key > k) {
+                node = right[node];
+            } else {
+                return node;
+            }
+        }
+        return NIL;
+    }
+
+    public boolean contains(long key) {
+        return search(key) != NIL;
+    }
+
+    /**
+     * 插入键值，已存在时不做任何修改
+     *
+     * @param key 键值
+     * @return 键值所在的结点
+     */
+    public int insert(long key) {
+        int p = NIL;
+        int node = root;
+        boolean isLeft = false;
+        while (node != NIL) {
+            long k = keys[node];
+            if (key < k) {
+                p = node;
+                node = left[node];
+                isLeft = true;
+            } else if (key > k) {
+                p = node;
+                node = right[node];
+                isLeft = false;
+            } else {
+                return node;
+            }
+        }
+
+        node = allocate();
+        keys[node] = key;
+        link(node, p, isLeft);
+        return node;
+    }
+
+    /**
+     * 删除键值
+     *
+     * @param key 键值
+     * @return 是否存在并被删除
+     */
+    public boolean remove(long key) {
+        int node = search(key);
+        if (node == NIL) {
+            return false;
+        }
+        removeNode(node);
+        return true;
+    }
+
+    /**
+     * 最小键值
+     *
+     * @return 最小键值
+     */
+    public long minimumKey() {
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        return keys[minimum()];
+    }
+
+    /**
+     * 最大键值
+     *
+     * @return 最大键值
+     */
+    public long maximumKey() {
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        return keys[maximum()];
+    }
+
+    /**
+     * 中序遍历，沿后继结点前进，不用递归
+     *
+     * @param action 访问键值
+     */
+    public void inOrder(LongConsumer action) {
+        for (int node = minimum(); node != NIL; node = successor(node)) {
+            action.accept(keys[node]);
+        }
+    }
+
+    /**
+     * 按从小到大的顺序返回全部键值
+     *
+     * @return 键值数组
+     */
+    public long[] toArray() {
+        long[] result = new long[size()];
+        int i = 0;
+        for (int node = minimum(); node != NIL; node = successor(node)) {
+            result[i++] = keys[node];
+        }
+        return result;
+    }
+
+    /**
+     * 生成只读快照，键值以 Eytzinger 顺序存入 long[]
+     *
+     * @return 只读快照
+     */
+    public FrozenLongBSTree freeze() {
+        return new FrozenLongBSTree(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    public static void main(String[] args) {
+        LongBSTree tree = new LongBSTree();
+
+        System.out.println("== 依次添加: 1 5 4 3 2 6 ");
+        long[] keys = {5, 1, 4, 3, 2, 6};
+        for (long key : keys) {
+            tree.insert(key);
+        }
+        System.out.println(tree);
+
+        System.out.println("== 删除根节点: 5");
+        tree.remove(5L);
+        System.out.println(tree);
+
+        System.out.printf("min=%d, max=%d, size=%d\n", tree.minimumKey(), tree.maximumKey(), tree.size());
+
+        // 删除后腾出的结点会被复用，容量不变
+        int capacity = tree.capacity();
+        tree.insert(7);
+        System.out.printf("capacity: %d -> %d\n", capacity, tree.capacity());
+    }
+}
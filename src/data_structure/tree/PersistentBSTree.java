@@ -0,0 +1,358 @@
+package data_structure.tree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 持久化(不可变)的二叉查找树，按AVL规则保持平衡
+ * <p>
+ * insert/remove 不修改原来的树，而是复制从根到修改位置这一条路径上的结点，返回一棵新树，
+ * 没有变化的子树在新旧两棵树之间共享。每次修改只新建 O(log n) 个结点。
+ * <p>
+ * 每个对象本身就是一个快照：取快照只是保存引用，O(1)；所有字段都是final的，
+ * 发布给其他线程后不需要加锁就能安全地读。写线程可以把最新的树放在 AtomicReference 中，读线程随时取走当时的版本。
+ */
+public final class PersistentBSTree<T extends Comparable> implements Iterable<T> {
+
+    private static final PersistentBSTree<?> EMPTY = new PersistentBSTree<>(null, 0);
+
+    private final Node<T> root;
+    private final int size;
+
+    private PersistentBSTree(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * 空树
+     *
+     * @return 空树
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable> PersistentBSTree<T> empty() {
+        return (PersistentBSTree<T>) EMPTY;
+    }
+
+    /**
+     * 插入键值，键值已存在时覆盖
+     *
+     * @param key 键值
+     * @return 插入之后的新树，原来的树不变
+     */
+    public PersistentBSTree<T> insert(T key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        boolean[] added = {false};
+        Node<T> newRoot = insert(root, key, added);
+        return newRoot == root ? this : new PersistentBSTree<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable> Node<T> insert(Node<T> node, T key, boolean[] added) {
+        if (node == null) {
+            added[0] = true;
+            return new Node<>(key, null, null);
+        }
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            Node<T> left = insert(node.left, key, added);
+            return left == node.left ? node : balance(node.key, left, node.right);
+        } else if (cmp > 0) {
+            Node<T> right = insert(node.right, key, added);
+            return right == node.right ? node : balance(node.key, node.left, right);
+        } else {
+            return key == node.key ? node : new Node<>(key, node.left, node.right);
+        }
+    }
+
+    /**
+     * 删除键值
+     *
+     * @param key 键值
+     * @return 删除之后的新树，键值不存在时返回原来的树
+     */
+    public PersistentBSTree<T> remove(T key) {
+        Node<T> newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentBSTree<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable> Node<T> remove(Node<T> node, T key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = key.compareTo(node.key);
+        if (cmp < 0) {
+            Node<T> left = remove(node.left, key);
+            return left == node.left ? node : balance(node.key, left, node.right);
+        } else if (cmp > 0) {
+            Node<T> right = remove(node.right, key);
+            return right == node.right ? node : balance(node.key, node.left, right);
+        }
+
+        if (node.left == null)
+            return node.right;
+        if (node.right == null)
+            return node.left;
+        // 有两个孩子：用右子树的最小键值顶替
+        Node<T> min = node.right;
+        while (min.left != null)
+            min = min.left;
+        return balance(min.key, node.left, removeMin(node.right));
+    }
+
+    private static <T extends Comparable> Node<T> removeMin(Node<T> node) {
+        if (node.left == null)
+            return node.right;
+        return balance(node.key, removeMin(node.left), node.right);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * 用key、left、right新建结点，左右子树高度差超过1时旋转
+     * <pre>
+     * 左子树高 2 层以上：
+     *   左孩子的左子树不低于右子树时右旋一次，否则先对左孩子左旋再右旋
+     * 右子树高 2 层以上时对称处理
+     * </pre>
+     */
+    private static <T extends Comparable> Node<T> balance(T key, Node<T> left, Node<T> right) {
+        int hl = height(left), hr = height(right);
+        if (hl > hr + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.left, new Node<>(key, left.right, right));
+            }
+            Node<T> lr = left.right;
+            return new Node<>(lr.key, new Node<>(left.key, left.left, lr.left), new Node<>(key, lr.right, right));
+        }
+        if (hr > hl + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, new Node<>(key, left, right.left), right.right);
+            }
+            Node<T> rl = right.left;
+            return new Node<>(rl.key, new Node<>(key, left, rl.left), new Node<>(right.key, rl.right, right.right));
+        }
+        return new Node<>(key, left, right);
+    }
+
+    /**
+     * 查找键值
+     *
+     * @param key 键值
+     * @return 树中与key相等的键值，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T search(T key) {
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = key.compareTo(node.key);
+            if (cmp < 0)
+                node = node.left;
+            else if (cmp > 0)
+                node = node.right;
+            else
+                return node.key;
+        }
+        return null;
+    }
+
+    public boolean contains(T key) {
+        return search(key) != null;
+    }
+
+    /**
+     * 最小键值
+     *
+     * @return 最小键值，树为空时返回null
+     */
+    public T minimum() {
+        Node<T> node = root;
+        if (node == null)
+            return null;
+        while (node.left != null)
+            node = node.left;
+        return node.key;
+    }
+
+    /**
+     * 最大键值
+     *
+     * @return 最大键值，树为空时返回null
+     */
+    public T maximum() {
+        Node<T> node = root;
+        if (node == null)
+            return null;
+        while (node.right != null)
+            node = node.right;
+        return node.key;
+    }
+
+    /**
+     * 大于key的最小键值。结点没有父指针，下降时记住最后一次向左拐的结点
+     *
+     * @param key 键值
+     * @return 后继键值，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T successor(T key) {
+        Node<T> node = root;
+        T result = null;
+        while (node != null) {
+            if (key.compareTo(node.key) < 0) {
+                result = node.key;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 小于key的最大键值
+     *
+     * @param key 键值
+     * @return 前驱键值，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public T predecessor(T key) {
+        Node<T> node = root;
+        T result = null;
+        while (node != null) {
+            if (key.compareTo(node.key) > 0) {
+                result = node.key;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 树的高度，空树为0
+     *
+     * @return 高度
+     */
+    public int height() {
+        return height(root);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void inOrder(Consumer<? super T> action) {
+        for (T key : this) {
+            action.accept(key);
+        }
+    }
+
+    /**
+     * 升序迭代器。树不可变，迭代期间不会被修改，也就不需要快速失败检查
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            // 结点没有父指针，用栈保存还没访问的祖先，栈深不超过树高
+            private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<T> node) {
+                for (; node != null; node = node.left) {
+                    stack.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty())
+                    throw new NoSuchElementException();
+                Node<T> node = stack.pop();
+                pushLeft(node.right);
+                return node.key;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (T key : this) {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(key);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static final class Node<T> {
+        final T key;
+        final Node<T> left;
+        final Node<T> right;
+        final int height;
+
+        Node(T key, Node<T> left, Node<T> right) {
+            this.key = key;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        PersistentBSTree<Integer> v1 = PersistentBSTree.empty();
+        for (int i = 1; i <= 7; i++) {
+            v1 = v1.insert(i);
+        }
+        PersistentBSTree<Integer> v2 = v1.remove(4).insert(10);
+        System.out.println("== v1: " + v1 + ", 高度: " + v1.height());
+        System.out.println("== v2: " + v2 + ", 高度: " + v2.height());
+
+        // 写线程不断发布新版本，读线程随时取快照，不需要加锁
+        final AtomicReference<PersistentBSTree<Integer>> current = new AtomicReference<>(PersistentBSTree.<Integer>empty());
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 100000; i++) {
+                current.set(current.get().insert(i));
+            }
+        });
+        writer.start();
+        long checked = 0;
+        while (writer.isAlive()) {
+            PersistentBSTree<Integer> snapshot = current.get();
+            int count = 0;
+            for (Integer ignored : snapshot) {
+                count++;
+            }
+            if (count != snapshot.size()) {
+                throw new IllegalStateException("快照不一致");
+            }
+            checked++;
+        }
+        writer.join();
+        System.out.println("== 读到 " + checked + " 个一致的快照, 最终大小: " + current.get().size()
+                + ", 高度: " + current.get().height());
+    }
+}